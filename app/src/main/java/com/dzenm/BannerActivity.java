@@ -5,6 +5,7 @@ import android.os.Bundle;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.dzenm.banner.BannerLayout;
+import com.dzenm.banner.ResourceImageLoader;
 import com.dzenm.banner.impl.TransformerStyle;
 
 import java.util.ArrayList;
@@ -35,9 +36,11 @@ public class BannerActivity extends AppCompatActivity {
 
         BannerLayout loopBanner1 = findViewById(R.id.banner_loop1);
         loopBanner1.setIndicator(true)
-                .setImageLoader(new MyImageLoader())
+                .setImageLoader(new ResourceImageLoader())
                 .load(list.toArray())
                 .setTransformerStyle(TransformerStyle.STYLE_NONE)
-                .build();
+                .setPlayWhenReady(1000)
+                .build()
+                .play();
     }
 }
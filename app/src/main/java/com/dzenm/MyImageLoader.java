@@ -1,23 +1,52 @@
 package com.dzenm;
 
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.util.SparseArray;
 import android.view.View;
 import android.widget.ImageView;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.resource.bitmap.RoundedCorners;
 import com.bumptech.glide.request.RequestOptions;
-import com.dzenm.banner.impl.ImageLoader;
+import com.bumptech.glide.request.target.Target;
+import com.dzenm.banner.impl.ImagePrefetcher;
+import com.dzenm.banner.impl.SizedImageLoader;
 
 /**
  * @author dzenm
  * @date 2019-09-06 14:50
  */
-public class MyImageLoader implements ImageLoader {
+public class MyImageLoader implements SizedImageLoader, ImagePrefetcher {
+
+    private SparseArray<Target<Drawable>> mPrefetchTargets = new SparseArray<>();
 
     @Override
     public void onLoader(View view, Object imageResource) {
+    }
+
+    @Override
+    public void onLoader(View view, Object imageResource, int width, int height) {
+        Glide.with(view.getContext()).load(imageResource).apply(getOptions(width, height)).into((ImageView) view);
+    }
+
+    @Override
+    public void onPrefetch(Context context, Object imageResource, int position, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+        mPrefetchTargets.put(position, Glide.with(context).load(imageResource)
+                .apply(getOptions(width, height)).preload(width, height));
+    }
+
+    @Override
+    public void onCancelPrefetch(Context context, Object imageResource, int position) {
+        Target<Drawable> target = mPrefetchTargets.get(position);
+        if (target == null) return;
+        mPrefetchTargets.remove(position);
+        Glide.with(context).clear(target);
+    }
+
+    private RequestOptions getOptions(int width, int height) {
         RoundedCorners rc = new RoundedCorners(20);
-        RequestOptions options = RequestOptions.bitmapTransform(rc);
-        Glide.with(view.getContext()).load(imageResource).apply(options).into((ImageView) view);
+        return RequestOptions.bitmapTransform(rc).override(width, height);
     }
 }
@@ -0,0 +1,85 @@
+package com.dzenm.banner.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 滑动回调的吞吐量, 每次操作为一次完整的滑动: 每一帧回调一次滑动的偏移量, 最后停在下一页.
+ * 使用gc分析器运行时, gc.alloc.rate.norm应该为0, 滑动过程中不会分配内存
+ * ./gradlew :banner-core:jmh
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PagerStateBenchmark {
+
+    /**
+     * 一次滑动的帧数
+     */
+    private static final int FRAMES = 20;
+
+    @Param({"5", "200"})
+    public int mRealCount;
+
+    private float[] mOffsets;
+    private PagerState mRingState, mVirtualState;
+
+    @Setup
+    public void setUp() {
+        mOffsets = new float[FRAMES];
+        for (int i = 0; i < FRAMES; i++) mOffsets[i] = (i + 1f) / (FRAMES + 1);
+        mRingState = PagerState.ring(mRealCount, 5);
+        mVirtualState = PagerState.virtual(mRealCount);
+    }
+
+    /**
+     * 固定页面循环(banner), 滑动时计算指示器的偏移量, 静止时页面回到中间页
+     */
+    @Benchmark
+    public void ringSwipe(Blackhole blackhole) {
+        int centerPage = mRingState.getCenterPage();
+        for (int i = 0; i < FRAMES; i++) {
+            blackhole.consume(mRingState.getIndicatorOffset(centerPage, mOffsets[i]));
+        }
+        blackhole.consume(mRingState.select(centerPage + 1));
+        blackhole.consume(mRingState.getRealPosition(mRingState.getCount() - 1));
+    }
+
+    /**
+     * 虚拟页面循环(banner2), 滑动时计算当前点和目标点, 静止时判断是否需要跳回中间位置
+     */
+    @Benchmark
+    public void virtualSwipe(Blackhole blackhole) {
+        int position = mVirtualState.getCurrentPagerPosition();
+        for (int i = 0; i < FRAMES; i++) {
+            mVirtualState.onScrolled(position, mOffsets[i]);
+            blackhole.consume(mVirtualState.getScrollCurrent());
+            blackhole.consume(mVirtualState.getScrollTarget());
+            blackhole.consume(mVirtualState.getScrollFraction());
+        }
+        mVirtualState.onScrolled(position + 1, 0);
+        mVirtualState.select(position + 1);
+        int recenterPosition = mVirtualState.getRecenterPosition();
+        if (recenterPosition >= 0) mVirtualState.select(recenterPosition);
+    }
+
+    /**
+     * 一帧内的一次滑动回调
+     */
+    @Benchmark
+    public float scrollCallback() {
+        mVirtualState.onScrolled(mVirtualState.getCurrentPagerPosition(), mOffsets[FRAMES / 2]);
+        return mVirtualState.getIndicatorOffset(mVirtualState.getCurrentPagerPosition(), mOffsets[FRAMES / 2]);
+    }
+}
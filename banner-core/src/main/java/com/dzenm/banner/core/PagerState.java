@@ -0,0 +1,265 @@
+package com.dzenm.banner.core;
+
+/**
+ * <pre>
+ * 轮播图页面位置和滑动偏移量的状态机, 不依赖Android, 可以直接在JVM上测试和基准测试.
+ * ViewPager的页面位置(pager position)和数据的实际位置(real position)之间的换算有三种方式:
+ * 1. 不循环 {@link #linear(int)}, 页面位置即实际位置
+ * 2. 循环时只创建固定数量的页面 {@link #ring(int, int)}, 滑动停止之后页面整体移动, 当前页始终回到中间页
+ * 3. 循环时使用数量很大的虚拟页面 {@link #virtual(int)}, 页面位置对实际数量取余即为实际位置,
+ *    滑动到虚拟页面的边缘时跳回中间位置
+ * 所有方法都不会创建对象, 可以在每一次滑动回调中调用
+ * </pre>
+ */
+public final class PagerState {
+
+    /**
+     * 循环时虚拟页面的最大数量, 保证页面位置乘以ViewPager宽度时不会溢出
+     */
+    public static final int MAX_VIRTUAL_COUNT = Integer.MAX_VALUE / 4096;
+
+    private static final int MODE_LINEAR = 0;
+    private static final int MODE_RING = 1;
+    private static final int MODE_VIRTUAL = 2;
+
+    private final int mMode;
+
+    /**
+     * 数据的实际数量
+     */
+    private final int mRealCount;
+
+    /**
+     * ViewPager的页面数量, 循环时为固定页面或者虚拟页面的数量
+     */
+    private final int mCount;
+
+    /**
+     * 当前显示的实际位置
+     */
+    private int mCurrentPosition;
+
+    /**
+     * 当前显示的页面位置, 固定页面循环时始终为中间页
+     */
+    private int mCurrentPagerPosition;
+
+    /**
+     * 滑动时上一次的当前页, 用于判断滑动的方向
+     */
+    private int mScrollPosition;
+
+    /**
+     * 滑动时当前页和目标页的实际位置, 以及滑向目标页的比例
+     */
+    private int mScrollCurrent, mScrollTarget;
+    private float mScrollFraction;
+
+    private PagerState(int mode, int realCount, int count, int currentPagerPosition) {
+        mMode = mode;
+        mRealCount = realCount;
+        mCount = count;
+        mCurrentPagerPosition = currentPagerPosition;
+        mScrollPosition = currentPagerPosition;
+    }
+
+    /**
+     * @param realCount 数据的实际数量
+     * @return 不循环的状态, 页面位置即实际位置
+     */
+    public static PagerState linear(int realCount) {
+        return new PagerState(MODE_LINEAR, realCount, realCount, 0);
+    }
+
+    /**
+     * @param realCount 数据的实际数量
+     * @param ringSize  循环时创建的页面数量, 为奇数, 当前页始终为中间页
+     * @return 固定页面循环的状态
+     */
+    public static PagerState ring(int realCount, int ringSize) {
+        return new PagerState(MODE_RING, realCount, ringSize, ringSize / 2);
+    }
+
+    /**
+     * @param realCount 数据的实际数量
+     * @return 虚拟页面循环的状态, 虚拟页面的数量为实际数量的整数倍, 初始位置为虚拟页面的中间位置
+     */
+    public static PagerState virtual(int realCount) {
+        int count = MAX_VIRTUAL_COUNT / realCount * realCount;
+        PagerState state = new PagerState(MODE_VIRTUAL, realCount, count, 0);
+        state.mCurrentPagerPosition = state.getMiddlePosition(0);
+        state.mScrollPosition = state.mCurrentPagerPosition;
+        return state;
+    }
+
+    public boolean isLoop() {
+        return mMode != MODE_LINEAR;
+    }
+
+    public int getRealCount() {
+        return mRealCount;
+    }
+
+    /**
+     * @return ViewPager的页面数量
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * @return 当前显示的实际位置
+     */
+    public int getCurrentPosition() {
+        return mCurrentPosition;
+    }
+
+    /**
+     * 修改当前显示的实际位置, 不会改变当前的页面位置
+     */
+    public void setCurrentPosition(int position) {
+        mCurrentPosition = loop(position);
+    }
+
+    /**
+     * @return 当前显示的页面位置
+     */
+    public int getCurrentPagerPosition() {
+        return mCurrentPagerPosition;
+    }
+
+    /**
+     * @return 固定页面循环时的中间页
+     */
+    public int getCenterPage() {
+        return mCount / 2;
+    }
+
+    /**
+     * @param position 可能超出范围的实际位置
+     * @return 循环时对应的实际位置
+     */
+    public int loop(int position) {
+        if (mMode == MODE_LINEAR || mRealCount <= 0) return position;
+        return (position % mRealCount + mRealCount) % mRealCount;
+    }
+
+    /**
+     * @param pagerPosition ViewPager的页面位置
+     * @return 页面对应的实际位置
+     */
+    public int getRealPosition(int pagerPosition) {
+        if (mMode == MODE_RING) return loop(mCurrentPosition + pagerPosition - getCenterPage());
+        return loop(pagerPosition);
+    }
+
+    /**
+     * @param realPosition 实际位置
+     * @return 虚拟页面中间位置附近对应实际位置的虚拟位置
+     */
+    public int getMiddlePosition(int realPosition) {
+        return mCount / 2 / mRealCount * mRealCount + realPosition;
+    }
+
+    /**
+     * 页面被选中或者滑动停止时调用, 更新当前显示的位置. 固定页面循环时, 调用者需要把页面整体移动,
+     * 使当前页回到中间页, 移动之后{@link #getRealPosition(int)}即为每个页面需要显示的实际位置
+     *
+     * @param pagerPosition 选中的页面位置
+     * @return 选中的页面相对于之前的当前页的偏移量
+     */
+    public int select(int pagerPosition) {
+        int offset = pagerPosition - mCurrentPagerPosition;
+        if (offset == 0) return 0;
+        mCurrentPosition = getRealPosition(pagerPosition);
+        if (mMode != MODE_RING) mCurrentPagerPosition = pagerPosition;
+        return offset;
+    }
+
+    /**
+     * 虚拟页面的数量足够连续滑动很长时间, 只有在滑动到虚拟页面的边缘时, 才需要在静止时跳回中间位置
+     *
+     * @return 需要跳转的页面位置, 不需要跳转时返回-1
+     */
+    public int getRecenterPosition() {
+        if (mMode != MODE_VIRTUAL) return -1;
+        if (mCurrentPagerPosition >= mRealCount && mCurrentPagerPosition < mCount - mRealCount) return -1;
+        return getMiddlePosition(mCurrentPosition);
+    }
+
+    /**
+     * 以实际位置为单位的连续偏移量, 循环时在第一页和最后一页之间滑动的前半段为负数或者超出最后一页,
+     * 超过一半之后跳到另一边, 范围为[-0.5, realCount - 0.5)
+     *
+     * @param position       {@link #onScrolled(int, float)}中的页面位置
+     * @param positionOffset {@link #onScrolled(int, float)}中的偏移量
+     * @return 指示器的偏移量
+     */
+    public float getIndicatorOffset(int position, float positionOffset) {
+        float offset = getRealPositionUnwrapped(position) + positionOffset;
+        if (mMode == MODE_LINEAR) return offset;
+        if (offset < -0.5f || offset >= mRealCount - 0.5f) {
+            offset -= (float) Math.floor((offset + 0.5f) / mRealCount) * mRealCount;
+        }
+        return offset;
+    }
+
+    /**
+     * @return 页面对应的实际位置, 循环时不取余
+     */
+    private int getRealPositionUnwrapped(int pagerPosition) {
+        if (mMode == MODE_RING) return mCurrentPosition + pagerPosition - getCenterPage();
+        if (mMode == MODE_VIRTUAL) return mCurrentPosition + pagerPosition - mCurrentPagerPosition;
+        return pagerPosition;
+    }
+
+    /**
+     * 滑动时调用, 根据滑动的位置计算当前页, 目标页以及滑向目标页的比例
+     *
+     * @param position       静止时, 为当前页所在的位置, 向左滑动时, 立刻切换为上一页, 向右滑动时,
+     *                       需要等滑动结束后, 才会切换下一页所在的位置
+     * @param positionOffset 静止时为0, 从左往右滑动的变化[1, 0], 从右往左滑动的变化[0, 1]
+     */
+    public void onScrolled(int position, float positionOffset) {
+        int current, target;
+        if (positionOffset > 0) {               // 开始滑动后
+            if (position < mScrollPosition) {   // 向左滑动
+                mScrollFraction = 1 - positionOffset;
+                current = position + 1;
+                target = position;
+            } else {                            // 向右滑动
+                mScrollFraction = positionOffset;
+                current = position;
+                target = position + 1;
+            }
+        } else {                                // 滑动停止时
+            mScrollFraction = positionOffset;
+            current = position;
+            target = position;
+        }
+        mScrollPosition = current;
+        mScrollCurrent = getRealPosition(current);
+        mScrollTarget = getRealPosition(target);
+    }
+
+    /**
+     * @return 滑动时当前页的实际位置
+     */
+    public int getScrollCurrent() {
+        return mScrollCurrent;
+    }
+
+    /**
+     * @return 滑动时目标页的实际位置, 静止时和当前页相同
+     */
+    public int getScrollTarget() {
+        return mScrollTarget;
+    }
+
+    /**
+     * @return 从当前页滑向目标页的比例, 范围为[0, 1)
+     */
+    public float getScrollFraction() {
+        return mScrollFraction;
+    }
+}
@@ -0,0 +1,132 @@
+package com.dzenm.banner.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <pre>
+ * 三种方式下页面位置和实际位置的换算, 指示器的偏移量, 以及滑动时的当前点和目标点
+ * </pre>
+ */
+public class PagerStateTest {
+
+    private static final float DELTA = 1e-5f;
+
+    @Test
+    public void ring_selectMovesCurrentAndRealPositions() {
+        PagerState state = PagerState.ring(4, 5);
+        assertTrue(state.isLoop());
+        assertEquals(2, state.getCenterPage());
+        // 中间页显示第一张图片, 左右两边依次显示相邻的图片
+        assertEquals(2, state.getRealPosition(0));
+        assertEquals(3, state.getRealPosition(1));
+        assertEquals(0, state.getRealPosition(2));
+        assertEquals(1, state.getRealPosition(3));
+        assertEquals(2, state.getRealPosition(4));
+
+        assertEquals(0, state.select(2));
+        assertEquals(-1, state.select(1));
+        assertEquals(3, state.getCurrentPosition());
+        // 页面整体移动之后当前页仍然为中间页
+        assertEquals(2, state.getCurrentPagerPosition());
+        assertEquals(3, state.getRealPosition(2));
+
+        assertEquals(2, state.select(4));
+        assertEquals(1, state.getCurrentPosition());
+        assertEquals(-1, state.getRecenterPosition());
+    }
+
+    @Test
+    public void ring_indicatorOffsetMatchesSwipeBetweenEnds() {
+        int size = 4;
+        PagerState state = PagerState.ring(size, 3);
+        for (int current = 0; current < size; current++) {
+            state.setCurrentPosition(current);
+            for (float offset = 0.05f; offset < 1; offset += 0.1f) {
+                // 循环时position为中间页的左边一页时为左滑, 为中间页时为右滑
+                assertEquals(indicatorBehavior(0, offset, current, size),
+                        state.getIndicatorOffset(0, offset), DELTA);
+                assertEquals(indicatorBehavior(1, offset, current, size),
+                        state.getIndicatorOffset(1, offset), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void linear_positionsAreReal() {
+        PagerState state = PagerState.linear(5);
+        assertFalse(state.isLoop());
+        assertEquals(5, state.getCount());
+        assertEquals(3, state.getRealPosition(3));
+        assertEquals(3, state.select(3));
+        assertEquals(3, state.getCurrentPosition());
+        assertEquals(2.25f, state.getIndicatorOffset(2, 0.25f), DELTA);
+        assertEquals(-1, state.getRecenterPosition());
+    }
+
+    @Test
+    public void virtual_recentersOnlyAtEdges() {
+        PagerState state = PagerState.virtual(3);
+        assertEquals(0, state.getCount() % 3);
+        int middle = state.getCurrentPagerPosition();
+        assertEquals(middle, state.getMiddlePosition(0));
+        assertEquals(-1, state.getRecenterPosition());
+
+        state.select(middle + 4);
+        assertEquals(1, state.getCurrentPosition());
+        assertEquals(2, state.getRealPosition(middle + 5));
+        assertEquals(-1, state.getRecenterPosition());
+
+        state.select(2);
+        assertEquals(2, state.getCurrentPosition());
+        assertEquals(state.getMiddlePosition(2), state.getRecenterPosition());
+        state.select(state.getCount() - 1);
+        assertEquals(state.getMiddlePosition(2), state.getRecenterPosition());
+    }
+
+    @Test
+    public void onScrolled_directionAndWrap() {
+        PagerState state = PagerState.virtual(3);
+        int middle = state.getCurrentPagerPosition();
+        state.onScrolled(middle, 0);
+        assertEquals(0, state.getScrollCurrent());
+        assertEquals(0, state.getScrollTarget());
+
+        // 向右滑动, position为当前页
+        state.onScrolled(middle, 0.3f);
+        assertEquals(0, state.getScrollCurrent());
+        assertEquals(1, state.getScrollTarget());
+        assertEquals(0.3f, state.getScrollFraction(), DELTA);
+
+        // 向左滑动, position立刻切换为上一页, 从第一页滑向最后一页
+        state.onScrolled(middle, 0);
+        state.onScrolled(middle - 1, 0.8f);
+        assertEquals(0, state.getScrollCurrent());
+        assertEquals(2, state.getScrollTarget());
+        assertEquals(0.2f, state.getScrollFraction(), DELTA);
+    }
+
+    /**
+     * 提取到{@link PagerState}之前BannerLayout中计算指示器偏移量的方法
+     */
+    private static float indicatorBehavior(int position, float offset, int currentPosition, int size) {
+        float offsetDistance = 0;
+        if (position == 0) {
+            if (currentPosition == 0) {
+                offsetDistance = offset > 0.5 ? offset - 1 : (size - 1) + offset;
+            } else {
+                offsetDistance = currentPosition - (1 - offset);
+            }
+        } else if (position == 1) {
+            if (currentPosition == size - 1) {
+                offsetDistance = offset < 0.5 ? (size - 1) + offset : offset - 1;
+            } else {
+                offsetDistance = currentPosition + offset;
+            }
+        }
+        return offsetDistance;
+    }
+}
@@ -0,0 +1,158 @@
+package com.dzenm.banner;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.OnLifecycleEvent;
+
+/**
+ * <pre>
+ * 根据banner的可见性, 是否添加到窗口, 窗口焦点, 生命周期以及用户的触摸控制自动播放的暂停和恢复,
+ * 只有在调用了{@link #play(long)}并且以上条件都满足时才会注册到{@link AutoPlayScheduler},
+ * 不可见的banner不会产生任何定时消息和页面切换. 恢复时从恢复的时刻开始重新计算完整的周期,
+ * 用户手动滑动之后不会马上自动切换
+ * </pre>
+ */
+class AutoPlayController extends AutoPlayScheduler.Task implements LifecycleObserver {
+
+    private Runnable mNextPage;
+
+    /**
+     * 自动播放的周期(毫秒)
+     */
+    private long mPeriod;
+
+    private Lifecycle mLifecycle;
+
+    /**
+     * 是否开启了自动播放
+     */
+    private boolean isPlaying;
+
+    private boolean isAttached;
+    private boolean isVisible = true;
+    private boolean isOnScreen = true;
+    private boolean hasWindowFocus = true;
+    private boolean isStarted = true;
+    private boolean isTouching;
+
+    /**
+     * @param nextPage 切换到下一页的操作
+     */
+    AutoPlayController(Runnable nextPage) {
+        mNextPage = nextPage;
+    }
+
+    /**
+     * 开启自动播放, 满足播放条件时开始计时
+     *
+     * @param period 自动播放的周期(毫秒)
+     */
+    void play(long period) {
+        mPeriod = period;
+        isPlaying = true;
+        if (isScheduled()) {
+            // 修改了周期, 重新计时
+            AutoPlayScheduler.getInstance().schedule(this, mPeriod);
+        } else {
+            update();
+        }
+    }
+
+    /**
+     * 停止自动播放, 并解除生命周期的绑定
+     */
+    void stop() {
+        isPlaying = false;
+        setLifecycleOwner(null);
+        update();
+    }
+
+    boolean isPlaying() {
+        return isPlaying;
+    }
+
+    /**
+     * 绑定生命周期, 在onStop时暂停播放, 在onStart时恢复播放, 在onDestroy时停止播放
+     */
+    void setLifecycleOwner(LifecycleOwner owner) {
+        if (mLifecycle != null) mLifecycle.removeObserver(this);
+        mLifecycle = owner == null ? null : owner.getLifecycle();
+        isStarted = true;
+        if (mLifecycle != null) {
+            isStarted = mLifecycle.getCurrentState().isAtLeast(Lifecycle.State.STARTED);
+            mLifecycle.addObserver(this);
+        }
+        update();
+    }
+
+    boolean hasLifecycle() {
+        return mLifecycle != null;
+    }
+
+    void setAttached(boolean attached) {
+        isAttached = attached;
+        update();
+    }
+
+    void setVisible(boolean visible) {
+        isVisible = visible;
+        update();
+    }
+
+    void setOnScreen(boolean onScreen) {
+        if (isOnScreen == onScreen) return;
+        isOnScreen = onScreen;
+        update();
+    }
+
+    void setWindowFocus(boolean windowFocus) {
+        hasWindowFocus = windowFocus;
+        update();
+    }
+
+    /**
+     * 用户按下或者拖动页面时暂停, 松开手指并且页面静止之后恢复
+     */
+    void setTouching(boolean touching) {
+        if (isTouching == touching) return;
+        isTouching = touching;
+        update();
+    }
+
+    @OnLifecycleEvent(Lifecycle.Event.ON_START)
+    void onStart() {
+        isStarted = true;
+        update();
+    }
+
+    @OnLifecycleEvent(Lifecycle.Event.ON_STOP)
+    void onStop() {
+        isStarted = false;
+        update();
+    }
+
+    @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY)
+    void onDestroy() {
+        stop();
+    }
+
+    /**
+     * 根据当前的状态注册或者注销自动播放
+     */
+    private void update() {
+        boolean active = isPlaying && isAttached && isVisible && isOnScreen
+                && hasWindowFocus && isStarted && !isTouching;
+        if (active == isScheduled()) return;
+        if (active) {
+            AutoPlayScheduler.getInstance().schedule(this, mPeriod);
+        } else {
+            AutoPlayScheduler.getInstance().cancel(this);
+        }
+    }
+
+    @Override
+    void onAutoPlay() {
+        mNextPage.run();
+    }
+}
@@ -0,0 +1,129 @@
+package com.dzenm.banner;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+
+/**
+ * <pre>
+ * 全局共享的自动播放调度器, 所有banner的自动播放任务都注册到主线程的Handler上,
+ * 不再为每个banner创建单独的Timer线程. 下一次执行的时间按照固定周期对齐
+ * ({@link SystemClock#uptimeMillis()}), 不会因为执行延迟产生累积误差,
+ * 没有注册任务时不会占用任何消息
+ * </pre>
+ */
+final class AutoPlayScheduler implements Runnable {
+
+    private static AutoPlayScheduler sInstance;
+
+    private final Handler mHandler;
+
+    /**
+     * 已注册的任务
+     */
+    private final ArrayList<Task> mTasks;
+
+    /**
+     * 分发任务时使用的数组, 防止任务在回调中注销时修改正在遍历的列表
+     */
+    private Task[] mDispatchTasks;
+
+    /**
+     * 已发送到Handler的执行时间, 没有发送时为{@link Long#MAX_VALUE}
+     */
+    private long mScheduledTime = Long.MAX_VALUE;
+
+    /**
+     * 只能在主线程中调用
+     */
+    static AutoPlayScheduler getInstance() {
+        if (sInstance == null) sInstance = new AutoPlayScheduler();
+        return sInstance;
+    }
+
+    private AutoPlayScheduler() {
+        mHandler = new Handler(Looper.getMainLooper());
+        mTasks = new ArrayList<>();
+        mDispatchTasks = new Task[4];
+    }
+
+    /**
+     * 注册任务, 从当前时间开始每隔period执行一次, 已注册的任务会重新计时
+     *
+     * @param task   执行的任务
+     * @param period 执行的周期(毫秒)
+     */
+    void schedule(Task task, long period) {
+        task.mPeriod = Math.max(period, 1);
+        task.mNextTime = SystemClock.uptimeMillis() + task.mPeriod;
+        if (!task.isScheduled) {
+            task.isScheduled = true;
+            mTasks.add(task);
+        }
+        reschedule();
+    }
+
+    /**
+     * 注销任务
+     */
+    void cancel(Task task) {
+        if (!task.isScheduled) return;
+        task.isScheduled = false;
+        mTasks.remove(task);
+        reschedule();
+    }
+
+    /**
+     * 根据最早需要执行的任务重新发送消息
+     */
+    private void reschedule() {
+        long nextTime = Long.MAX_VALUE;
+        for (int i = 0; i < mTasks.size(); i++) {
+            nextTime = Math.min(nextTime, mTasks.get(i).mNextTime);
+        }
+        if (nextTime == mScheduledTime) return;
+        mHandler.removeCallbacks(this);
+        mScheduledTime = nextTime;
+        if (nextTime != Long.MAX_VALUE) mHandler.postAtTime(this, nextTime);
+    }
+
+    @Override
+    public void run() {
+        mScheduledTime = Long.MAX_VALUE;
+        long now = SystemClock.uptimeMillis();
+        int count = mTasks.size();
+        if (mDispatchTasks.length < count) mDispatchTasks = new Task[count * 2];
+        mTasks.toArray(mDispatchTasks);
+        for (int i = 0; i < count; i++) {
+            Task task = mDispatchTasks[i];
+            mDispatchTasks[i] = null;
+            if (!task.isScheduled || task.mNextTime > now) continue;
+            // 下一次执行的时间按照周期对齐, 跳过已经错过的周期
+            long missed = (now - task.mNextTime) / task.mPeriod;
+            task.mNextTime += (missed + 1) * task.mPeriod;
+            task.onAutoPlay();
+        }
+        reschedule();
+    }
+
+    /**
+     * 自动播放的任务
+     */
+    abstract static class Task {
+
+        private long mPeriod;
+        private long mNextTime;
+        private boolean isScheduled;
+
+        boolean isScheduled() {
+            return isScheduled;
+        }
+
+        /**
+         * 到达执行时间时在主线程中回调
+         */
+        abstract void onAutoPlay();
+    }
+}
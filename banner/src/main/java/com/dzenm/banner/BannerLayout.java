@@ -3,11 +3,15 @@ package com.dzenm.banner;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.View;
 import android.view.ViewTreeObserver;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.RelativeLayout;
 
+import androidx.core.content.ContextCompat;
+
 import com.dzenm.banner.impl.IIndicator;
 import com.dzenm.banner.impl.ImageLoader;
 
@@ -42,6 +46,14 @@ import java.util.List;
  *     }
  * }
  *
+ * 实现SizedImageLoader时, 页面布局完成之后才加载图片, 并且给出图片显示的大小
+ * public class MyImageLoader implements SizedImageLoader {
+ *     @Override
+ *     public void onLoader(View view, Object imageResource, int width, int height) {
+ *         Glide.with(view.getContext()).load(imageResource).override(width, height).into((ImageView) view);
+ *     }
+ * }
+ *
  * 可循环的banner
  * BannerLayout loopBanner = findViewById(R.id.banner_loop);
  * loopBanner.setLoop(true)
@@ -85,6 +97,11 @@ public class BannerLayout extends PagerLayout implements IIndicator, ViewTreeObs
     private LinearLayout mIndicatorLayout;
     private ImageView mIndicatorImageView;
 
+    /**
+     * 在一个View中绘制所有指示器 {@link #setDrawIndicator(boolean)}
+     */
+    private DotIndicatorView mDotIndicatorView;
+
     private Object[] mImages;
 
     /**
@@ -92,6 +109,11 @@ public class BannerLayout extends PagerLayout implements IIndicator, ViewTreeObs
      */
     private boolean isShowIndicator;
 
+    /**
+     * 是否使用一个View绘制所有的指示器 {@link #setDrawIndicator(boolean)}
+     */
+    private boolean isDrawIndicator;
+
     /**
      * 指示器的图片 {@link #setIndicatorResource(int, int)} )}
      */
@@ -102,7 +124,21 @@ public class BannerLayout extends PagerLayout implements IIndicator, ViewTreeObs
      */
     private float mIndicatorDistance;
 
-    private ImageLoader mImageLoader;
+    private ImageBinder mImageBinder;
+
+    /**
+     * 一帧内多次滑动回调只保留最后一次的偏移量, 在下一帧开始时统一移动指示器
+     */
+    private float mPendingIndicatorOffset;
+    private boolean isFramePending;
+
+    private Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            isFramePending = false;
+            moveIndicator(mPendingIndicatorOffset);
+        }
+    };
 
     public BannerLayout(Context context) {
         this(context, null);
@@ -119,6 +155,7 @@ public class BannerLayout extends PagerLayout implements IIndicator, ViewTreeObs
         mSelectedIndicator = t.getInteger(R.styleable.BannerLayout_selectorIndicator, R.drawable.select);
         mUnSelectedIndicator = t.getInteger(R.styleable.BannerLayout_unSelectorIndicator, R.drawable.unselect);
         isShowIndicator = t.getBoolean(R.styleable.BannerLayout_showIndicator, true);
+        isDrawIndicator = t.getBoolean(R.styleable.BannerLayout_drawIndicator, false);
         t.recycle();
 
         initializeView(context);
@@ -162,6 +199,14 @@ public class BannerLayout extends PagerLayout implements IIndicator, ViewTreeObs
         return this;
     }
 
+    /**
+     * 使用一个View绘制所有的指示器, 不再为每个指示器创建ImageView, 适用于数量较多的轮播图
+     */
+    public BannerLayout setDrawIndicator(boolean drawIndicator) {
+        isDrawIndicator = drawIndicator;
+        return this;
+    }
+
     public BannerLayout addIndicatorRule(int verb) {
         mRootLayoutParams.addRule(verb);
         return this;
@@ -179,18 +224,32 @@ public class BannerLayout extends PagerLayout implements IIndicator, ViewTreeObs
     }
 
     public BannerLayout setImageLoader(ImageLoader imageLoader) {
-        mImageLoader = imageLoader;
+        mImageBinder = new ImageBinder(imageLoader);
+        mImageBinder.setOnImageReadyListener(new ImageBinder.OnImageReadyListener() {
+            @Override
+            public void onImageReady(View view, long loadTime) {
+                onPageReady(view, loadTime);
+            }
+        });
         return this;
     }
 
     @Override
     protected void buildViewPager() {
-        if (isShowIndicator) {
+        if (!isShowIndicator) {
+            mRootLayout.setVisibility(GONE);
+        } else if (isDrawIndicator) {
+            // 使用绘制的指示器替换指示器的外层布局
+            removeView(mRootLayout);
+            mDotIndicatorView = new DotIndicatorView(getContext());
+            mDotIndicatorView.setLayoutParams(mRootLayoutParams);
+            mDotIndicatorView.setIndicator(ContextCompat.getDrawable(getContext(), mSelectedIndicator),
+                    ContextCompat.getDrawable(getContext(), mUnSelectedIndicator), dp2px(4), mImageCount);
+            addView(mDotIndicatorView);
+        } else {
             // 监听小圆点滑动的跳转
             mIndicatorImageView.getViewTreeObserver().addOnGlobalLayoutListener(this);
             createIndicator(mIndicatorLayout, dp2px(4), mImageCount);
-        } else {
-            mRootLayout.setVisibility(GONE);
         }
     }
 
@@ -213,48 +272,65 @@ public class BannerLayout extends PagerLayout implements IIndicator, ViewTreeObs
 
     @Override
     protected void adjustViewPosition(int viewPosition, int position) {
-        mImageLoader.onLoader(mViews.get(viewPosition), mImages[position]);
+        mImageBinder.bind(mViews.get(viewPosition), mImages[position]);
+    }
+
+    @Override
+    protected boolean isPageReady(int viewPosition) {
+        return mImageBinder.isReady(mViews.get(viewPosition));
+    }
+
+    @Override
+    protected void onPrefetch(int position, int skip, int count, boolean isLoop, boolean forwardOnly) {
+        mImageBinder.prefetch(getContext(), mImages, position, skip, count, isLoop, forwardOnly);
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        if (mImageBinder == null) return;
+        mImageBinder.cancelPrefetch(getContext(), mImages);
+        // 释放所有页面显示的图片, 共用的缓存不再认为这些图片正在显示
+        if (mViews != null) {
+            for (View view : mViews) mImageBinder.release(view);
+        }
     }
 
     @Override
-    protected void onIndicatorBehavior(boolean isLoop, int position,
-                                       float positionOffset, int currentViewPosition) {
+    protected void onIndicatorBehavior(float offset) {
         if (isShowIndicator) {  // 提示的小圆点
-            RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams) mIndicatorImageView.getLayoutParams();
-            if (isLoop) {
-                float offset = indicatorBehavior(position, positionOffset, currentViewPosition, mImageCount);
-                params.leftMargin = (int) (offset * mIndicatorDistance);
-            } else {
-                params.leftMargin = (int) ((positionOffset + position) * mIndicatorDistance);
+            mPendingIndicatorOffset = offset;
+            if (!isFramePending) {
+                isFramePending = true;
+                Choreographer.getInstance().postFrameCallback(mFrameCallback);
             }
-            mIndicatorImageView.setLayoutParams(params);
         }
     }
 
-    private float indicatorBehavior(int position, float offset, int currentPosition, int size) {
-        float offsetDistance = 0;
-        if (position == 0) {                    // 左滑(offset从1.0-0.0结束)
-            if (currentPosition == 0) {         // 是否是第一个向左滑动，并且显示到最后一个
-                if (offset > 0.5) {
-                    offsetDistance = offset - 1;
-                } else {
-                    offsetDistance = (size - 1) + offset;
-                }
-            } else {
-                offsetDistance = currentPosition - (1 - offset);
-            }
-        } else if (position == 1) {             // 右滑(offset从0.0-1.0结束)
-            if (currentPosition == size - 1) {  // 是否是最后一个向左滑动，并且显示到第一个
-                if (offset < 0.5) {
-                    offsetDistance = (size - 1) + offset;
-                } else {
-                    offsetDistance = offset - 1;
-                }
-            } else {
-                offsetDistance = currentPosition + offset;
+    /**
+     * 移动选中的指示器, 偏移量没有变化时不会重绘
+     *
+     * @param offset 以指示器的个数为单位的偏移量
+     */
+    private void moveIndicator(float offset) {
+        if (isDrawIndicator) {
+            mDotIndicatorView.setIndicatorOffset(offset);
+        } else {
+            // 通过平移移动选中的指示器, 滑动时只会重绘, 不会重新测量和布局
+            float translationX = offset * mIndicatorDistance;
+            if (translationX != mIndicatorImageView.getTranslationX()) {
+                mIndicatorImageView.setTranslationX(translationX);
             }
         }
-        return offsetDistance;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (isFramePending) {
+            isFramePending = false;
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        }
+        super.onDetachedFromWindow();
     }
 
     @Override
@@ -0,0 +1,111 @@
+package com.dzenm.banner;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+/**
+ * <pre>
+ * 在一个View中绘制所有的指示器, 未选中的指示器和选中的指示器都通过Drawable直接绘制,
+ * 不需要为每个指示器创建ImageView, 指示器的数量不会影响布局的层级和测量
+ * </pre>
+ */
+class DotIndicatorView extends View {
+
+    private Drawable mSelectedDrawable, mUnSelectedDrawable;
+
+    /**
+     * 指示器的数量
+     */
+    private int mCount;
+
+    /**
+     * 两个指示器之间的外边距
+     */
+    private int mIndicatorMargin;
+
+    /**
+     * 选中的指示器的偏移量, 以指示器的个数为单位, 例如1.5表示处于第二个和第三个指示器之间
+     */
+    private float mOffset;
+
+    DotIndicatorView(Context context) {
+        super(context);
+    }
+
+    /**
+     * @param selected        选中的指示器
+     * @param unSelected      未选中的指示器
+     * @param indicatorMargin 两个指示器之间的距离
+     * @param count           指示器的数量
+     */
+    void setIndicator(Drawable selected, Drawable unSelected, int indicatorMargin, int count) {
+        mSelectedDrawable = selected;
+        mUnSelectedDrawable = unSelected;
+        mIndicatorMargin = indicatorMargin;
+        mCount = count;
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * 设置选中的指示器的偏移量, 只会重绘, 不会重新测量和布局
+     *
+     * @param offset 以指示器的个数为单位的偏移量
+     */
+    void setIndicatorOffset(float offset) {
+        if (offset == mOffset) return;
+        mOffset = offset;
+        invalidate();
+    }
+
+    float getIndicatorOffset() {
+        return mOffset;
+    }
+
+    /**
+     * @return 两个指示器左边之间的距离
+     */
+    float getIndicatorDistance() {
+        return mUnSelectedDrawable == null ? 0 : mUnSelectedDrawable.getIntrinsicWidth() + mIndicatorMargin;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (mCount <= 0 || mUnSelectedDrawable == null || mSelectedDrawable == null) {
+            setMeasuredDimension(0, 0);
+            return;
+        }
+        int width = mCount * (int) getIndicatorDistance();
+        int height = Math.max(mUnSelectedDrawable.getIntrinsicHeight(),
+                mSelectedDrawable.getIntrinsicHeight());
+        setMeasuredDimension(width + getPaddingLeft() + getPaddingRight(),
+                height + getPaddingTop() + getPaddingBottom());
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mCount <= 0 || mUnSelectedDrawable == null || mSelectedDrawable == null) return;
+        float distance = getIndicatorDistance();
+        int left = getPaddingLeft();
+        int centerY = getPaddingTop() + (getHeight() - getPaddingTop() - getPaddingBottom()) / 2;
+
+        // 未选中的指示器
+        int width = mUnSelectedDrawable.getIntrinsicWidth();
+        int top = centerY - mUnSelectedDrawable.getIntrinsicHeight() / 2;
+        int bottom = top + mUnSelectedDrawable.getIntrinsicHeight();
+        for (int i = 0; i < mCount; i++) {
+            int x = left + (int) (i * distance);
+            mUnSelectedDrawable.setBounds(x, top, x + width, bottom);
+            mUnSelectedDrawable.draw(canvas);
+        }
+
+        // 选中的指示器
+        int x = left + (int) (mOffset * distance);
+        top = centerY - mSelectedDrawable.getIntrinsicHeight() / 2;
+        mSelectedDrawable.setBounds(x, top, x + mSelectedDrawable.getIntrinsicWidth(),
+                top + mSelectedDrawable.getIntrinsicHeight());
+        mSelectedDrawable.draw(canvas);
+    }
+}
@@ -0,0 +1,340 @@
+package com.dzenm.banner;
+
+import android.animation.TimeInterpolator;
+import android.view.View;
+import android.view.animation.DecelerateInterpolator;
+
+import androidx.annotation.NonNull;
+import androidx.core.view.ViewCompat;
+import androidx.viewpager.widget.ViewPager;
+
+import com.dzenm.banner.impl.PageTransformer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <pre>
+ * 通过关键帧描述页面动画, 每个属性在若干个页面位置上的值, 相邻关键帧之间按插值器计算.
+ * {@link Builder#build()}时所有属性被预先采样为数组, 滑动时只需要查表和线性插值,
+ * 不会创建对象也不会进行三角函数运算. 作为自定义动画使用时, 需要设置为{@link
+ * com.dzenm.banner.impl.TransformerStyle#STYLE_DIY}
+ * </pre>
+ */
+public final class KeyframeTransformer implements PageTransformer {
+
+    /**
+     * 水平缩放
+     */
+    public static final int SCALE_X = 0;
+
+    /**
+     * 垂直缩放
+     */
+    public static final int SCALE_Y = 1;
+
+    /**
+     * 透明度
+     */
+    public static final int ALPHA = 2;
+
+    /**
+     * 水平位移, 以页面宽度为单位
+     */
+    public static final int TRANSLATION_X = 3;
+
+    /**
+     * 水平位移, 以dp为单位, 与{@link #TRANSLATION_X}叠加
+     */
+    public static final int TRANSLATION_X_DP = 4;
+
+    /**
+     * 垂直位移, 以页面高度为单位
+     */
+    public static final int TRANSLATION_Y = 5;
+
+    /**
+     * 旋转角度
+     */
+    public static final int ROTATION = 6;
+
+    /**
+     * 阴影高度, 以px为单位
+     */
+    public static final int ELEVATION = 7;
+
+    private static final int PROPERTY_COUNT = 8;
+
+    /**
+     * 每个页面宽度的默认采样次数
+     */
+    private static final int DEFAULT_SAMPLES = 60;
+
+    /**
+     * 每个属性的采样表, 为null时不修改该属性
+     */
+    private final float[][] mTables;
+
+    /**
+     * 采样的位置范围和每个页面宽度的采样次数
+     */
+    private final float mStart, mEnd, mSamples;
+
+    /**
+     * 页面可见的位置范围, 超出范围的页面设置为GONE
+     */
+    private final float mVisibleFrom, mVisibleTo;
+
+    private final boolean hasVisibleRange;
+
+    private KeyframeTransformer(Builder builder) {
+        mStart = builder.mStart;
+        mEnd = builder.mEnd;
+        mSamples = builder.mSamples;
+        mVisibleFrom = builder.mVisibleFrom;
+        mVisibleTo = builder.mVisibleTo;
+        hasVisibleRange = builder.hasVisibleRange;
+        int length = (int) Math.ceil((builder.mEnd - builder.mStart) * mSamples) + 1;
+        mTables = new float[PROPERTY_COUNT][];
+        for (int property = 0; property < PROPERTY_COUNT; property++) {
+            List<Keyframe> keyframes = builder.mKeyframes.get(property);
+            if (keyframes.isEmpty()) continue;
+            float[] table = new float[length];
+            for (int i = 0; i < length; i++) {
+                table[i] = sample(keyframes, mStart + i / mSamples);
+            }
+            mTables[property] = table;
+        }
+    }
+
+    /**
+     * 根据关键帧计算某个位置的值, 只在创建采样表时调用
+     */
+    private static float sample(List<Keyframe> keyframes, float position) {
+        Keyframe first = keyframes.get(0);
+        if (position <= first.mPosition) return first.mValue;
+        for (int i = 1; i < keyframes.size(); i++) {
+            Keyframe to = keyframes.get(i);
+            if (position > to.mPosition) continue;
+            Keyframe from = keyframes.get(i - 1);
+            float fraction = (position - from.mPosition) / (to.mPosition - from.mPosition);
+            if (to.mInterpolator != null) fraction = to.mInterpolator.getInterpolation(fraction);
+            return from.mValue + (to.mValue - from.mValue) * fraction;
+        }
+        return keyframes.get(keyframes.size() - 1).mValue;
+    }
+
+    /**
+     * @return 关键帧的位置范围, 页面位置的绝对值超出该范围时属性不再变化
+     */
+    float getRange() {
+        return Math.max(Math.abs(mStart), Math.abs(mEnd));
+    }
+
+    /**
+     * 查表计算属性在某个位置的值
+     *
+     * @param property 属性
+     * @param position 页面的位置
+     * @return 属性的值
+     */
+    float getValue(int property, float position) {
+        float[] table = mTables[property];
+        float index = (position - mStart) * mSamples;
+        if (index <= 0) return table[0];
+        int last = table.length - 1;
+        if (index >= last) return table[last];
+        int i = (int) index;
+        return table[i] + (table[i + 1] - table[i]) * (index - i);
+    }
+
+    boolean hasProperty(int property) {
+        return mTables[property] != null;
+    }
+
+    @Override
+    public void transformPage(@NonNull View page, @NonNull ViewPager viewPager, float position) {
+        apply(page, position);
+    }
+
+    /**
+     * 设置页面的动画属性
+     *
+     * @param page     滑动的view
+     * @param position 页面的位置
+     */
+    void apply(View page, float position) {
+        if (hasVisibleRange) {
+            boolean isVisible = position > mVisibleFrom && position < mVisibleTo;
+            page.setVisibility(isVisible ? View.VISIBLE : View.GONE);
+        }
+        if (hasProperty(SCALE_X)) page.setScaleX(getValue(SCALE_X, position));
+        if (hasProperty(SCALE_Y)) page.setScaleY(getValue(SCALE_Y, position));
+        if (hasProperty(ALPHA)) page.setAlpha(getValue(ALPHA, position));
+        if (hasProperty(TRANSLATION_X) || hasProperty(TRANSLATION_X_DP)) {
+            float translationX = 0;
+            if (hasProperty(TRANSLATION_X)) {
+                translationX += getValue(TRANSLATION_X, position) * page.getWidth();
+            }
+            if (hasProperty(TRANSLATION_X_DP)) {
+                translationX += getValue(TRANSLATION_X_DP, position)
+                        * page.getResources().getDisplayMetrics().density;
+            }
+            page.setTranslationX(translationX);
+        }
+        if (hasProperty(TRANSLATION_Y)) {
+            page.setTranslationY(getValue(TRANSLATION_Y, position) * page.getHeight());
+        }
+        if (hasProperty(ROTATION)) page.setRotation(getValue(ROTATION, position));
+        if (hasProperty(ELEVATION)) ViewCompat.setElevation(page, getValue(ELEVATION, position));
+    }
+
+    /**
+     * 相邻的页面缩小并且变透明, {@link com.dzenm.banner.impl.TransformerStyle#STYLE_FILM}
+     */
+    public static KeyframeTransformer film() {
+        return new Builder()
+                .scale(-1, 0.85f).scale(0, 1f).scale(1, 0.85f)
+                .keyframe(ALPHA, -1, 0.75f).keyframe(ALPHA, 0, 1f).keyframe(ALPHA, 1, 0.75f)
+                .build();
+    }
+
+    /**
+     * 右边的页面叠加在当前页面下面, {@link com.dzenm.banner.impl.TransformerStyle#STYLE_COVER}
+     */
+    public static KeyframeTransformer cover() {
+        return new Builder()
+                .keyframe(ALPHA, -1, 0f).keyframe(ALPHA, 0, 1f).keyframe(ALPHA, 1, 0f)
+                .keyframe(TRANSLATION_X, 0, 0f).keyframe(TRANSLATION_X, 1, -1f)
+                .scale(0, 1f).scale(1, 0.5f)
+                .build();
+    }
+
+    /**
+     * 右边的页面折叠在当前页面后面, 当前页面旋转移出,
+     * {@link com.dzenm.banner.impl.TransformerStyle#STYLE_FOLD}
+     *
+     * @param offscreenPageLimit 折叠显示的页面数量
+     */
+    public static KeyframeTransformer fold(int offscreenPageLimit) {
+        int limit = Math.max(offscreenPageLimit, 1);
+        Builder builder = new Builder()
+                .setRange(-1, limit)
+                .setVisibleRange(-1, limit)
+                // 页面折叠后露出的宽度为页面宽度的0.1 / limit加上15dp
+                .keyframe(TRANSLATION_X, 0, 0f).keyframe(TRANSLATION_X, limit, (0.1f / limit - 1) * limit)
+                .keyframe(TRANSLATION_X_DP, 0, 0f).keyframe(TRANSLATION_X_DP, limit, 15f * limit)
+                .keyframe(ROTATION, -1, -30f).keyframe(ROTATION, 0, 0f)
+                // 当前页面移出时透明度按1 + position^3变化
+                .keyframe(ALPHA, -1, 0f).keyframe(ALPHA, 0, 1f, new DecelerateInterpolator(1.5f))
+                .keyframe(ALPHA, limit, 0f)
+                .scale(0, 0.8f).scale(limit, 0.8f - 0.1f * limit)
+                .keyframe(ELEVATION, -1, (limit + 1) * 5f).keyframe(ELEVATION, limit, 0f);
+        // 只有最后一个折叠的页面逐渐消失
+        if (limit > 1) builder.keyframe(ALPHA, limit - 1, 1f);
+        return builder.build();
+    }
+
+    private static class Keyframe {
+
+        private final float mPosition, mValue;
+
+        private final TimeInterpolator mInterpolator;
+
+        private Keyframe(float position, float value, TimeInterpolator interpolator) {
+            mPosition = position;
+            mValue = value;
+            mInterpolator = interpolator;
+        }
+    }
+
+    public static class Builder {
+
+        private final List<List<Keyframe>> mKeyframes = new ArrayList<>(PROPERTY_COUNT);
+
+        private float mStart = -1, mEnd = 1;
+
+        private float mSamples = DEFAULT_SAMPLES;
+
+        private float mVisibleFrom, mVisibleTo;
+
+        private boolean hasVisibleRange;
+
+        public Builder() {
+            for (int i = 0; i < PROPERTY_COUNT; i++) mKeyframes.add(new ArrayList<Keyframe>());
+        }
+
+        /**
+         * 添加一个关键帧, 与前一个关键帧之间线性变化
+         *
+         * @param property 属性, 例如{@link #ALPHA}
+         * @param position 页面的位置, 当前页为0, 右边的页面为正数
+         * @param value    属性在该位置的值
+         */
+        public Builder keyframe(int property, float position, float value) {
+            return keyframe(property, position, value, null);
+        }
+
+        /**
+         * 添加一个关键帧
+         *
+         * @param property     属性, 例如{@link #ALPHA}
+         * @param position     页面的位置, 当前页为0, 右边的页面为正数
+         * @param value        属性在该位置的值
+         * @param interpolator 从前一个关键帧变化到该关键帧使用的插值器
+         */
+        public Builder keyframe(int property, float position, float value, TimeInterpolator interpolator) {
+            if (property < 0 || property >= PROPERTY_COUNT) {
+                throw new IllegalArgumentException("unknown property: " + property);
+            }
+            List<Keyframe> keyframes = mKeyframes.get(property);
+            int index = keyframes.size();
+            while (index > 0 && keyframes.get(index - 1).mPosition > position) index--;
+            if (index > 0 && keyframes.get(index - 1).mPosition == position) {
+                throw new IllegalArgumentException("duplicate keyframe at " + position);
+            }
+            keyframes.add(index, new Keyframe(position, value, interpolator));
+            return this;
+        }
+
+        /**
+         * 同时添加水平缩放和垂直缩放的关键帧
+         */
+        public Builder scale(float position, float value) {
+            keyframe(SCALE_X, position, value);
+            return keyframe(SCALE_Y, position, value);
+        }
+
+        /**
+         * 设置采样的位置范围, 默认为[-1, 1], 超出范围的位置取边界的值
+         */
+        public Builder setRange(float start, float end) {
+            if (end <= start) throw new IllegalArgumentException("end must be greater than start");
+            mStart = start;
+            mEnd = end;
+            return this;
+        }
+
+        /**
+         * 设置页面可见的位置范围(不包括边界), 超出范围的页面设置为GONE
+         */
+        public Builder setVisibleRange(float from, float to) {
+            mVisibleFrom = from;
+            mVisibleTo = to;
+            hasVisibleRange = true;
+            return this;
+        }
+
+        /**
+         * 设置每个页面宽度的采样次数, 默认为60
+         */
+        public Builder setSamples(int samples) {
+            mSamples = Math.max(samples, 1);
+            return this;
+        }
+
+        public KeyframeTransformer build() {
+            return new KeyframeTransformer(this);
+        }
+    }
+}
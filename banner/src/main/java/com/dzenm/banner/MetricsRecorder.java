@@ -0,0 +1,147 @@
+package com.dzenm.banner;
+
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import androidx.viewpager.widget.ViewPager;
+
+import com.dzenm.banner.impl.OnMetricsListener;
+
+/**
+ * <pre>
+ * 统计banner的性能指标, 数据累加在同一个{@link BannerMetrics}中, 每隔一段时间在页面静止或者自动播放时回调一次,
+ * 不会在滑动过程中回调. 只在滑动时注册{@link Choreographer}的帧回调统计帧数, 统计过程中不会创建对象.
+ * 只能在主线程中调用
+ * </pre>
+ */
+final class MetricsRecorder implements Choreographer.FrameCallback {
+
+    /**
+     * 默认的刷新周期(纳秒), 无法获取屏幕刷新率时使用
+     */
+    private static final long DEFAULT_FRAME_INTERVAL = 16666667L;
+
+    private final OnMetricsListener mOnMetricsListener;
+
+    /**
+     * 回调的最小间隔(毫秒)
+     */
+    private final long mInterval;
+
+    private final BannerMetrics mMetrics = new BannerMetrics();
+
+    /**
+     * 和上一帧的间隔超过该值时为卡顿的帧(纳秒)
+     */
+    private long mJankThreshold = DEFAULT_FRAME_INTERVAL * 3 / 2;
+
+    private int mScrollState = ViewPager.SCROLL_STATE_IDLE;
+
+    /**
+     * 当前的滑动是否由手指拖动开始, 以及手指抬起的时间, 还没有抬起时为0
+     */
+    private boolean isSwiping;
+    private long mReleaseTime;
+
+    /**
+     * 当前滑动的帧数和卡顿的帧数, 以及上一帧的时间
+     */
+    private int mFrameCount, mJankyFrameCount;
+    private long mLastFrameTime;
+    private boolean isFrameCallbackPosted;
+
+    MetricsRecorder(OnMetricsListener listener, long interval) {
+        mOnMetricsListener = listener;
+        mInterval = interval;
+    }
+
+    /**
+     * @param refreshRate 屏幕的刷新率, 无效时使用60Hz
+     */
+    void setRefreshRate(float refreshRate) {
+        long frameInterval = refreshRate >= 1 ? (long) (1000000000L / refreshRate) : DEFAULT_FRAME_INTERVAL;
+        mJankThreshold = frameInterval * 3 / 2;
+    }
+
+    /**
+     * 手指拖动时为一次手指滑动, 从拖动变为自动滑动时手指已经抬起, 静止时结束一次滑动
+     */
+    void onPageScrollStateChanged(int state) {
+        int lastState = mScrollState;
+        mScrollState = state;
+        if (lastState == ViewPager.SCROLL_STATE_IDLE && state != ViewPager.SCROLL_STATE_IDLE) {
+            mFrameCount = mJankyFrameCount = 0;
+            mLastFrameTime = 0;
+            postFrameCallback();
+        }
+        if (state == ViewPager.SCROLL_STATE_DRAGGING) {
+            isSwiping = true;
+            mReleaseTime = 0;
+        } else if (lastState == ViewPager.SCROLL_STATE_DRAGGING) {
+            mReleaseTime = SystemClock.uptimeMillis();
+        }
+        if (state == ViewPager.SCROLL_STATE_IDLE && lastState != ViewPager.SCROLL_STATE_IDLE) {
+            removeFrameCallback();
+            if (isSwiping) mMetrics.addSettle(SystemClock.uptimeMillis() - mReleaseTime);
+            isSwiping = false;
+            mMetrics.addScroll(mFrameCount, mJankyFrameCount);
+            dispatchIfDue();
+        }
+    }
+
+    void onAutoPlayTick() {
+        mMetrics.addAutoPlayTick();
+        if (mScrollState == ViewPager.SCROLL_STATE_IDLE) dispatchIfDue();
+    }
+
+    /**
+     * @param loadTime 图片从发起加载到显示的时间
+     */
+    void onImageShown(long loadTime) {
+        mMetrics.addLoad(loadTime);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        isFrameCallbackPosted = false;
+        if (mLastFrameTime > 0) {
+            mFrameCount++;
+            if (frameTimeNanos - mLastFrameTime > mJankThreshold) mJankyFrameCount++;
+        }
+        mLastFrameTime = frameTimeNanos;
+        if (mScrollState != ViewPager.SCROLL_STATE_IDLE) postFrameCallback();
+    }
+
+    /**
+     * 移除时停止统计, 回调已经统计的数据
+     */
+    void flush() {
+        removeFrameCallback();
+        mScrollState = ViewPager.SCROLL_STATE_IDLE;
+        isSwiping = false;
+        if (!mMetrics.isEmpty()) dispatch(SystemClock.uptimeMillis());
+    }
+
+    private void dispatchIfDue() {
+        long now = SystemClock.uptimeMillis();
+        if (now - mMetrics.getStartTime() >= mInterval) dispatch(now);
+    }
+
+    private void dispatch(long now) {
+        mMetrics.setEndTime(now);
+        mOnMetricsListener.onMetrics(mMetrics);
+        mMetrics.reset(now);
+    }
+
+    private void postFrameCallback() {
+        if (isFrameCallbackPosted) return;
+        isFrameCallbackPosted = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void removeFrameCallback() {
+        if (!isFrameCallbackPosted) return;
+        isFrameCallbackPosted = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+}
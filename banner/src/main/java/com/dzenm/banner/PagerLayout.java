@@ -4,34 +4,41 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Rect;
+import android.os.Build;
 import android.util.AttributeSet;
 import android.util.TypedValue;
+import android.view.Display;
+import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.ImageView;
 import android.widget.RelativeLayout;
 
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LifecycleOwner;
 import androidx.viewpager.widget.ViewPager;
 
+import com.dzenm.banner.core.PagerState;
 import com.dzenm.banner.impl.IView;
+import com.dzenm.banner.impl.ImagePrefetcher;
 import com.dzenm.banner.impl.OnItemClickListener;
+import com.dzenm.banner.impl.OnMetricsListener;
 import com.dzenm.banner.impl.PageTransformer;
+import com.dzenm.banner.impl.RequestImageLoader;
 import com.dzenm.banner.impl.TransformerStyle;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * @author dzenm
  * @date 2019-08-09 21:28
  */
-public class PagerLayout extends RelativeLayout implements IView, View.OnClickListener, ViewPager.OnPageChangeListener {
+public class PagerLayout extends RelativeLayout implements IView, View.OnClickListener, ViewPager.OnPageChangeListener,
+        ViewTreeObserver.OnScrollChangedListener {
 
-    final static int LEFT_PAGE = 0;         // 左边显示页（根据index来调整左边页应该显示的图片）
-    final static int CENTER_PAGE = 1;       // 中间显示页（永远停留在本页）
-    final static int RIGHT_PAGE = 2;        // 右边显示页（根据index来调整右边页应该显示的图片）
-    final static int COUNT_PAGE = 3;        // 创建页面对象的个数
+    final static int COUNT_PAGE = 3;        // 循环时默认创建页面对象的个数
 
     protected Activity mActivity;
 
@@ -49,10 +56,16 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
     protected int mImageCount;
 
     /**
-     * 当前显示的View真正的位置, 由于在循环的时候, 只创建了三个页面, 必须动态的调整页面和图片之间的位置
-     * 所以当前显示的View主要作用在此, 不循环的时候, 根据图片的个数创建View, 此时当前位置即图片所在位置
+     * 循环时创建页面对象的个数, 必须为不小于3的奇数, 中间页永远停留在当前显示的图片,
+     * 左右两边各 mRingSize / 2 页显示相邻的图片 {@link #setRingSize(int)}
      */
-    private int mCurrentImagePosition;
+    private int mRingSize;
+
+    /**
+     * 页面和图片位置的状态, 由于在循环的时候, 只创建了mRingSize个页面, 必须动态的调整页面和图片之间的位置,
+     * 不循环的时候, 根据图片的个数创建View, 此时当前位置即图片所在位置 {@link PagerState}
+     */
+    private PagerState mPagerState;
 
     /**
      * View之间的外边间距值, 用于使用一些其它的效果时, 配合使用
@@ -80,9 +93,59 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
     private PageTransformer mPageTransformer;
 
     /**
-     * 定时器, 定时切换页面
+     * 自动播放, 根据可见性和生命周期自动暂停和恢复 {@link AutoPlayController}
+     */
+    private AutoPlayController mAutoPlay = new AutoPlayController(new Runnable() {
+        @Override
+        public void run() {
+            onAutoPlay();
+        }
+    });
+
+    /**
+     * 自动播放时等待下一页图片显示的最长时间(毫秒), 为0时不等待 {@link #setPlayWhenReady(long)}
      */
-    private Timer mTimer;
+    private long mMaxReadyWait;
+
+    /**
+     * 自动播放是否在等待下一页的图片显示
+     */
+    private boolean isWaitingReady;
+
+    /**
+     * 等待超时之后直接切换到下一页
+     */
+    private Runnable mReadyTimeout = new Runnable() {
+        @Override
+        public void run() {
+            playAfterWait();
+        }
+    };
+
+    /**
+     * 手指是否按在banner上, 按下时暂停自动播放
+     */
+    private boolean isTouchDown;
+
+    /**
+     * ViewPager的滑动状态, 手指抬起并且页面静止之后才恢复自动播放
+     */
+    private int mScrollState = ViewPager.SCROLL_STATE_IDLE;
+
+    /**
+     * 计算banner在屏幕中的可见区域
+     */
+    private Rect mVisibleRect = new Rect();
+
+    /**
+     * 页面静止时每一边预加载的图片数量 {@link #setPrefetchCount(int)}
+     */
+    private int mPrefetchCount;
+
+    /**
+     * 滑动时是否将页面提升为硬件层 {@link #setHardwareLayer(boolean)}
+     */
+    private boolean isHardwareLayer;
 
     /**
      * 是否循环显示页面 {@link #setLoop(boolean)} )}
@@ -99,6 +162,11 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
      */
     private OnItemClickListener onItemClickListener;
 
+    /**
+     * 统计性能指标, 未设置监听时为null {@link #setOnMetricsListener(OnMetricsListener, long)}
+     */
+    private MetricsRecorder mMetricsRecorder;
+
     public PagerLayout(Context context) {
         this(context, null);
     }
@@ -121,6 +189,9 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
                 R.styleable.PagerLayout_pager_margin_vertical, dp2px(0));
         mTransformerStyle = t.getInt(R.styleable.PagerLayout_transformerStyle,
                 TransformerStyle.STYLE_NONE);
+        setRingSize(t.getInt(R.styleable.PagerLayout_ring_size, COUNT_PAGE));
+        isHardwareLayer = t.getBoolean(R.styleable.PagerLayout_hardware_layer, true);
+        mPrefetchCount = t.getInt(R.styleable.PagerLayout_prefetch_count, 1);
         t.recycle();
         initializeView(context);
     }
@@ -159,6 +230,46 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
         return this;
     }
 
+    /**
+     * 设置循环时创建页面对象的个数, 画廊效果同时显示多个页面时, 应该大于等于屏幕中可以看到的页面数量,
+     * 否则两边的页面在滑动之后才会显示图片. 偶数会加1, 最小为3
+     *
+     * @param ringSize 循环时创建页面对象的个数
+     */
+    public PagerLayout setRingSize(int ringSize) {
+        ringSize = Math.max(ringSize, COUNT_PAGE);
+        mRingSize = ringSize % 2 == 0 ? ringSize + 1 : ringSize;
+        return this;
+    }
+
+    /**
+     * 设置滑动时是否将页面提升为硬件层, 默认开启. 页面内容每一帧都会变化(例如播放动画)时,
+     * 硬件层需要不断重建, 此时应该关闭
+     */
+    public PagerLayout setHardwareLayer(boolean hardwareLayer) {
+        isHardwareLayer = hardwareLayer;
+        return this;
+    }
+
+    /**
+     * 设置页面静止时每一边预加载的图片数量, 只对实现了{@link ImagePrefetcher}的图片加载器有效,
+     * 已经添加到ViewPager中的页面不需要预加载, 默认为1, 为0时不预加载
+     */
+    public PagerLayout setPrefetchCount(int prefetchCount) {
+        mPrefetchCount = Math.max(prefetchCount, 0);
+        return this;
+    }
+
+    /**
+     * 自动播放时等到下一页的图片显示之后再切换, 最多等待maxWait毫秒, 超时之后直接切换, 等待时间应该小于自动播放的周期.
+     * 下一页在切换之前已经添加到ViewPager中并开始加载, 只对实现了{@link RequestImageLoader}的图片加载器有效,
+     * 其它加载器无法知道图片何时显示, 不会等待. 默认为0, 为0时不等待
+     */
+    public PagerLayout setPlayWhenReady(long maxWait) {
+        mMaxReadyWait = Math.max(maxWait, 0);
+        return this;
+    }
+
     public PagerLayout setOnItemClickListener(OnItemClickListener itemClickListener) {
         onItemClickListener = itemClickListener;
         return this;
@@ -174,6 +285,25 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
         return this;
     }
 
+    /**
+     * 设置性能指标的监听, 统计手指滑动的次数, 手指抬起到页面静止的时间, 滑动过程中的帧数和卡顿的帧数,
+     * 图片从加载到显示的时间以及自动播放的次数. 数据在主线程中累加, 距离上一次回调超过interval之后,
+     * 在页面静止或者自动播放时回调一次, banner移除或者销毁时回调剩余的数据
+     *
+     * @param listener 性能指标的监听, 为null时停止统计
+     * @param interval 回调的最小间隔(毫秒)
+     */
+    public PagerLayout setOnMetricsListener(OnMetricsListener listener, long interval) {
+        if (mMetricsRecorder != null) mMetricsRecorder.flush();
+        mMetricsRecorder = listener == null ? null : new MetricsRecorder(listener, Math.max(interval, 0));
+        if (mMetricsRecorder != null) updateRefreshRate();
+        return this;
+    }
+
+    public ViewPager getViewPager() {
+        return mViewPager;
+    }
+
     public void play() {
         play(2);
     }
@@ -189,62 +319,114 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
      * 循环播放
      */
     private void setLoopToPlay(int period) {
-        if (mTimer == null) mTimer = new Timer();
-        mTimer.schedule(mTimerTask, period * 1000, period * 1000);
+        if (!mAutoPlay.hasLifecycle() && mActivity instanceof LifecycleOwner) {
+            mAutoPlay.setLifecycleOwner((LifecycleOwner) mActivity);
+        }
+        mAutoPlay.play(period * 1000L);
     }
 
     /**
      * 防止内存泄露
      */
     public void destroy() {
-        if (mTimer != null) {
-            mTimer.cancel();
-            mTimer = null;
-        }
+        mAutoPlay.stop();
+        cancelWaitReady();
+        if (mMetricsRecorder != null) mMetricsRecorder.flush();
+    }
+
+    /**
+     * 绑定生命周期, 自动播放在onStop时暂停, 在onStart时恢复, 在onDestroy时停止,
+     * 未设置时默认绑定Context的生命周期(Context为LifecycleOwner时)
+     */
+    public PagerLayout setLifecycleOwner(LifecycleOwner owner) {
+        mAutoPlay.setLifecycleOwner(owner);
+        return this;
     }
 
     /**
      * 跳转到下一页
      */
     public void nextPage() {
-        // 因为位置始终为1 那么下一页就始终为2
-        mViewPager.setCurrentItem(RIGHT_PAGE, true);
+        // 因为位置始终为中间页 那么下一页就始终为中间页的下一页
+        mViewPager.setCurrentItem(getCenterPage() + 1, true);
     }
 
     /**
      * 跳转到上一页
      */
     public void lastPage() {
-        // 因为位置始终为1 那么上一页就始终为0
-        mViewPager.setCurrentItem(LEFT_PAGE, true);
+        // 因为位置始终为中间页 那么上一页就始终为中间页的上一页
+        mViewPager.setCurrentItem(getCenterPage() - 1, true);
     }
 
     /**
-     * 定时跳转
+     * 自动播放切换页面, 下一页的图片还没有显示时, 等到图片显示或者超时之后再切换
      */
-    private TimerTask mTimerTask = new TimerTask() {
-        @Override
-        public void run() {
-            mActivity.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    nextPage();
-                }
-            });
+    private void onAutoPlay() {
+        if (mMetricsRecorder != null) mMetricsRecorder.onAutoPlayTick();
+        if (isWaitingReady) return;
+        if (mMaxReadyWait <= 0 || isPageReady(getCenterPage() + 1)) {
+            nextPage();
+        } else {
+            isWaitingReady = true;
+            postDelayed(mReadyTimeout, mMaxReadyWait);
         }
-    };
+    }
+
+    /**
+     * @param viewPosition 页面的位置
+     * @return 页面的图片是否已经显示
+     */
+    protected boolean isPageReady(int viewPosition) {
+        return true;
+    }
+
+    /**
+     * 页面的图片已经显示, 自动播放正在等待该页面时切换到该页面
+     *
+     * @param view     图片已经显示的页面
+     * @param loadTime 图片从发起加载到显示的时间(毫秒)
+     */
+    protected void onPageReady(View view, long loadTime) {
+        if (mMetricsRecorder != null) mMetricsRecorder.onImageShown(loadTime);
+        if (isWaitingReady && mViews.indexOf(view) == getCenterPage() + 1) playAfterWait();
+    }
+
+    private void playAfterWait() {
+        cancelWaitReady();
+        // 等待期间暂停或者停止了自动播放时不再切换
+        if (mAutoPlay.isScheduled()) nextPage();
+    }
+
+    private void cancelWaitReady() {
+        if (!isWaitingReady) return;
+        isWaitingReady = false;
+        removeCallbacks(mReadyTimeout);
+    }
+
+    /**
+     * @return 循环时中间页的位置
+     */
+    int getCenterPage() {
+        return mRingSize / 2;
+    }
 
     /**
      * 该方法会进行一些配置, 包括ViewPager的配置, View的创建, 以及Adapter的设置
      * 进行配置完之后, 最后调用该方法创建一个多页面滑动显示的View
      */
     public PagerLayout build() {
+        mPagerState = isLoop ? PagerState.ring(mImageCount, mRingSize) : PagerState.linear(mImageCount);
         buildViewPager();
         buildView();
-        mViewPager.setPageTransformer(true,
-                new Transformer(mTransformerStyle, mViewPager, mPageTransformer));
+        // 循环时保证所有页面都添加到ViewPager中, 画廊效果两边的页面才能显示
+        if (isLoop) mViewPager.setOffscreenPageLimit(getCenterPage());
+        Transformer transformer = new Transformer(mTransformerStyle, mViewPager, mPageTransformer);
+        transformer.setHardwareLayerEnabled(isHardwareLayer);
+        mViewPager.setPageTransformer(true, transformer);
+        mViewPager.addOnPageChangeListener(transformer);
         mViewPager.setAdapter(new ViewPagerAdapter(mViews));                                  // 设置ViewPager适配器
-        mViewPager.setCurrentItem(isLoop ? CENTER_PAGE : LEFT_PAGE);
+        mViewPager.setCurrentItem(isLoop ? getCenterPage() : 0);
         mViewPager.addOnPageChangeListener(this);                        // 监听ViewPager滑动
         return this;
     }
@@ -265,7 +447,7 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
      * 创建View
      */
     private void buildView() {
-        int length = isLoop ? COUNT_PAGE : mImageCount;
+        int length = isLoop ? mRingSize : mImageCount;
         mViews = new ArrayList<>();
         createView(mViews, isLoop, length);
     }
@@ -274,8 +456,8 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
     public void createView(List<View> views, boolean isLoop, int length) {
         for (int i = 0; i < length; i++) {
             views.add(getView(true));
-            int index = isLoop ? (i == 0 ? length - 1 : i - 1) : i;
-            adjustViewPosition(i, index);
+            // 循环时中间页显示第一张图片, 左右两边依次显示相邻的图片
+            adjustViewPosition(i, mPagerState.getRealPosition(i));
         }
     }
 
@@ -294,71 +476,71 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
 
     @Override
     public void onClick(View view) {
-        if (onItemClickListener != null) onItemClickListener.onItemClick(mCurrentImagePosition);
+        if (onItemClickListener != null) onItemClickListener.onItemClick(mPagerState.getCurrentPosition());
     }
 
     @Override
     public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
         if (positionOffset == 0) {  // positionOffset等于0时处于静止, 静止时调整页面
-            if (isLoop) {
-                if (position == CENTER_PAGE) return;
-                setLoopViewPosition(position);
-                setLoopImagePosition();
-            } else {
-                mCurrentImagePosition = position;
+            // 在第一页左滑时为最后一页, 在最后一页右滑时为第一页
+            int offset = mPagerState.select(position);
+            if (isLoop && offset != 0) setLoopImagePosition(offset);
+            // 自动播放只会向后滑动, 只预加载后面的图片
+            if (mPrefetchCount > 0) {
+                onPrefetch(mPagerState.getCurrentPosition(), mViewPager.getOffscreenPageLimit(), mPrefetchCount,
+                        isLoop, mAutoPlay.isPlaying());
             }
         } else {                    // 在滑动时监听滑动的偏移量
-            onIndicatorBehavior(isLoop, position, positionOffset, mCurrentImagePosition);
+            onIndicatorBehavior(mPagerState.getIndicatorOffset(position, positionOffset));
         }
     }
 
-    protected void onIndicatorBehavior(boolean isLoop, int position,
-                                       float positionOffset, int currentViewPosition) {
+    /**
+     * 滑动时移动指示器
+     *
+     * @param offset 以指示器的个数为单位的偏移量, 循环时在第一页和最后一页之间滑动超过一半之后跳到另一边
+     */
+    protected void onIndicatorBehavior(float offset) {
 
     }
 
     /**
-     * 当循环的时候在每次滑动时改变currentPage
+     * 页面静止时预加载前后的图片
+     *
+     * @param position    当前显示的图片位置
+     * @param skip        当前页面每一边已经添加到ViewPager中的页面数量
+     * @param count       每一边预加载的图片数量
+     * @param isLoop      是否循环显示
+     * @param forwardOnly 是否只预加载后面的图片
      */
-    private void setLoopViewPosition(int position) {
-        // 初始 mCurrentImagePosition 为0, position为1, 由于滑动时进入直接判断
-        mCurrentImagePosition = position > CENTER_PAGE ? mCurrentImagePosition + 1 : mCurrentImagePosition - 1;
-        // 该if语句在于判断循环时, 在 mCurrentImagePosition == 0 时左滑 mCurrentImagePosition == -1
-        // 表示 mCurrentImagePosition 为最后一页, 这用于重置页面位置, 同理, mCurrentImagePosition == mSize - 1也是如此
-        if (mCurrentImagePosition == -1) {              // 起始页左滑，将左边那页设置为最后一页
-            mCurrentImagePosition = mImageCount - 1;    // 最后一页
-        } else if (mCurrentImagePosition == mImageCount) {  // 最后一页右滑，将右边那页设置为起始页
-            mCurrentImagePosition = 0;                      // 第一页
-        }
+    protected void onPrefetch(int position, int skip, int count, boolean isLoop, boolean forwardOnly) {
     }
 
     /**
-     * 当循环的时候在每次滑动之后对图片重新调整
+     * 当循环的时候在每次滑动之后对页面重新调整, 滑动之后大部分页面仍然显示着相邻的图片,
+     * 所以只需要将页面整体移动, 把移出的页面放到另一边, 并且只加载新露出的页面的图片
+     *
+     * @param offset 滑动停止时所在的页面相对于中间页的偏移量
      */
-    private void setLoopImagePosition() {
-        // 设置左页的数据
-        // 判断当前位置是否为数据起始位置，如果是（即0）将左页的数据设置为最后一个数据
-        if (mCurrentImagePosition == 0) {
-            adjustViewPosition(LEFT_PAGE, mImageCount - 1);
-        } else {
-            adjustViewPosition(LEFT_PAGE, mCurrentImagePosition - 1);
-        }
-
-        // 设置中间页的数据
-        adjustViewPosition(CENTER_PAGE, mCurrentImagePosition);
-
-        // 设置右页的数据
-        // 判断当前位置是否为数据末尾，如果是（即size-1）将右边的数据设置为第一个数据
-        if (mCurrentImagePosition == mImageCount - 1) {
-            adjustViewPosition(RIGHT_PAGE, 0);
+    private void setLoopImagePosition(int offset) {
+        if (offset > 0) {
+            // 向右滑动, 左边移出的页面移到右边, 显示后面的图片
+            for (int i = 0; i < offset; i++) mViews.add(mViews.remove(0));
+            for (int viewPosition = mRingSize - offset; viewPosition < mRingSize; viewPosition++) {
+                adjustViewPosition(viewPosition, mPagerState.getRealPosition(viewPosition));
+            }
         } else {
-            adjustViewPosition(RIGHT_PAGE, mCurrentImagePosition + 1);
+            // 向左滑动, 右边移出的页面移到左边, 显示前面的图片
+            for (int i = 0; i < -offset; i++) mViews.add(0, mViews.remove(mRingSize - 1));
+            for (int viewPosition = 0; viewPosition < -offset; viewPosition++) {
+                adjustViewPosition(viewPosition, mPagerState.getRealPosition(viewPosition));
+            }
         }
         /*
-         * 滑动结束后将当前页设置为第二页
-         * 即ViewPager的当前显示position，本来为1，每次滑动之后会变为2，需要手动将它设置为1
+         * 通知ViewPager页面的位置已经改变, ViewPager会根据 {@link ViewPagerAdapter#getItemPosition(Object)}
+         * 将当前显示的页面重新定位到中间页, 不会重新创建页面
          */
-        mViewPager.setCurrentItem(CENTER_PAGE, false);
+        mViewPager.getAdapter().notifyDataSetChanged();
     }
 
     @Override
@@ -369,6 +551,102 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
     public void onPageScrollStateChanged(int state) {
         // 当用手指滑动时，在手指滑动的时刻触发state==1, 滑动停止时，先调用state==2，在调用state==0
         // 当不用手指滑动时，滑动的时刻不会调用state==1, 直接等滑动结束时，先调用state==2，在调用state==0
+        // 手指滑动时暂停自动播放, 滑动停止之后从头开始计时, 不会在手动滑动之后马上自动切换
+        mScrollState = state;
+        if (mMetricsRecorder != null) mMetricsRecorder.onPageScrollStateChanged(state);
+        if (state == ViewPager.SCROLL_STATE_DRAGGING) {
+            cancelWaitReady();
+            mAutoPlay.setTouching(true);
+        } else if (state == ViewPager.SCROLL_STATE_IDLE && !isTouchDown) {
+            mAutoPlay.setTouching(false);
+        }
+    }
+
+    /**
+     * 手指按下时暂停自动播放, 手指抬起并且页面静止之后恢复
+     */
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        switch (ev.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                isTouchDown = true;
+                cancelWaitReady();
+                mAutoPlay.setTouching(true);
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                isTouchDown = false;
+                if (mScrollState == ViewPager.SCROLL_STATE_IDLE) mAutoPlay.setTouching(false);
+                break;
+        }
+        return super.dispatchTouchEvent(ev);
+    }
+
+    /************************************* 以下为自动播放的可见性处理 *********************************/
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getViewTreeObserver().addOnScrollChangedListener(this);
+        mAutoPlay.setWindowFocus(hasWindowFocus());
+        mAutoPlay.setAttached(true);
+        if (mMetricsRecorder != null) updateRefreshRate();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        getViewTreeObserver().removeOnScrollChangedListener(this);
+        mAutoPlay.setAttached(false);
+        cancelWaitReady();
+        isTouchDown = false;
+        mAutoPlay.setTouching(false);
+        if (mMetricsRecorder != null) mMetricsRecorder.flush();
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * 根据屏幕的刷新率判断卡顿的帧
+     */
+    private void updateRefreshRate() {
+        Display display = getDisplay();
+        if (display != null) mMetricsRecorder.setRefreshRate(display.getRefreshRate());
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        if (mAutoPlay != null) mAutoPlay.setVisible(isVisible);
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        // API 24以下没有onVisibilityAggregated, 根据自身及父布局的可见性判断
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N && mAutoPlay != null) {
+            mAutoPlay.setVisible(isShown() && getWindowVisibility() == VISIBLE);
+        }
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N && mAutoPlay != null) {
+            mAutoPlay.setVisible(isShown() && visibility == VISIBLE);
+        }
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        mAutoPlay.setWindowFocus(hasWindowFocus);
+    }
+
+    /**
+     * 父布局滚动时判断banner是否已经滚出屏幕
+     */
+    @Override
+    public void onScrollChanged() {
+        mAutoPlay.setOnScreen(getGlobalVisibleRect(mVisibleRect));
     }
 
     public static int dp2px(int value) {
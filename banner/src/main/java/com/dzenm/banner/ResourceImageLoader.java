@@ -0,0 +1,247 @@
+package com.dzenm.banner;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.widget.ImageView;
+
+import com.dzenm.banner.impl.RequestImageLoader;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <pre>
+ * 加载drawable资源id的图片加载器, 按照页面显示的大小解码图片, 解码之后的图片保存在{@link BitmapCache}中,
+ * 来回滑动再次显示同一张图片时不需要重新解码. 已经从缓存中移除并且所有页面都不再显示的图片放入{@link BitmapPool},
+ * 解码新的图片时复用这些图片的内存. 图片在后台线程中解码, 页面重新绑定时还没有开始的解码会被取消,
+ * 已经取消的请求解码完成之后只放入缓存, 不会显示到页面上. 页面被回收或者banner销毁时释放页面显示的图片. 没有传入缓存和复用池时, 使用进程内共用的默认实例,
+ * 创建多个加载器不会增加内存的上限
+ *
+ * bannerLayout.setImageLoader(new ResourceImageLoader())
+ *     .load(new Object[]{R.drawable.one, R.drawable.two, R.drawable.three})
+ *     .build();
+ * </pre>
+ */
+public class ResourceImageLoader implements RequestImageLoader {
+
+    private final BitmapCache mBitmapCache;
+    private final BitmapPool mBitmapPool;
+
+    /**
+     * 所有加载器共用的解码线程
+     */
+    private static ExecutorService sDecodeExecutor;
+
+    /**
+     * 没有传入缓存和复用池的加载器共用的默认实例
+     */
+    private static BitmapCache sDefaultBitmapCache;
+    private static BitmapPool sDefaultBitmapPool;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * 解码时复用的Options, 只在解码线程中使用
+     */
+    private final BitmapFactory.Options mOptions = new BitmapFactory.Options();
+
+    /**
+     * 使用默认的缓存{@link #getDefaultBitmapCache()}和复用池{@link #getDefaultBitmapPool()}
+     */
+    public ResourceImageLoader() {
+        this(getDefaultBitmapCache(), getDefaultBitmapPool());
+    }
+
+    /**
+     * @param bitmapCache 多个banner可以共用一个缓存, 缓存记录所有banner正在显示的图片,
+     *                    移除的图片放入默认的复用池{@link #getDefaultBitmapPool()}
+     */
+    public ResourceImageLoader(BitmapCache bitmapCache) {
+        this(bitmapCache, getDefaultBitmapPool());
+    }
+
+    /**
+     * 缓存移除的图片在所有页面都不再显示之后放入复用池, 共用缓存时应该同时共用复用池,
+     * 否则放入最后创建的加载器的复用池
+     *
+     * @param bitmapCache 多个banner可以共用一个缓存
+     * @param bitmapPool  多个banner可以共用一个复用池
+     */
+    public ResourceImageLoader(BitmapCache bitmapCache, BitmapPool bitmapPool) {
+        mBitmapCache = bitmapCache;
+        mBitmapPool = bitmapPool;
+        mBitmapCache.setBitmapPool(bitmapPool);
+    }
+
+    public BitmapCache getBitmapCache() {
+        return mBitmapCache;
+    }
+
+    public BitmapPool getBitmapPool() {
+        return mBitmapPool;
+    }
+
+    @Override
+    public void onLoader(View view, Object imageResource) {
+        ((ImageView) view).setImageResource((Integer) imageResource);
+    }
+
+    @Override
+    public void onLoader(final ImageRequest request) {
+        Bitmap bitmap = mBitmapCache.get(request.getImageResource(), request.getWidth(), request.getHeight());
+        if (bitmap != null) {
+            show((ImageView) request.getView(), bitmap);
+            request.notifyReady();
+            return;
+        }
+        final Resources resources = request.getView().getResources();
+        request.setTag(getDecodeExecutor().submit(new Runnable() {
+            @Override
+            public void run() {
+                if (request.isCancelled()) return;
+                final Bitmap decoded = decode(resources, (Integer) request.getImageResource(),
+                        request.getWidth(), request.getHeight());
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onDecoded(request, decoded);
+                    }
+                });
+            }
+        }));
+    }
+
+    @Override
+    public void onCancel(ImageRequest request) {
+        Future future = (Future) request.getTag();
+        if (future != null) future.cancel(false);
+    }
+
+    @Override
+    public void onRelease(View view) {
+        ImageView imageView = (ImageView) view;
+        if (imageView.getTag(R.id.resource_image_bitmap) == null) return;
+        imageView.setImageDrawable(null);
+        show(imageView, null);
+    }
+
+    /**
+     * 在主线程中处理解码的结果, 请求已经取消时图片只放入缓存
+     */
+    private void onDecoded(ImageRequest request, Bitmap bitmap) {
+        if (bitmap == null) {
+            if (request.isCancelled()) return;
+            // 不是位图资源, 例如vector drawable
+            ImageView view = (ImageView) request.getView();
+            view.setImageResource((Integer) request.getImageResource());
+            show(view, null);
+            request.notifyReady();
+            return;
+        }
+        mBitmapCache.put(request.getImageResource(), request.getWidth(), request.getHeight(), bitmap);
+        if (request.isCancelled()) return;
+        show((ImageView) request.getView(), bitmap);
+        request.notifyReady();
+    }
+
+    /**
+     * @return 默认构造方法使用的缓存, 进程内只有一个, 大小为{@link BitmapCache#getDefaultMaxSize()},
+     * 可以在{@link android.content.ComponentCallbacks2#onTrimMemory(int)}中调用{@link BitmapCache#trimMemory(int)}
+     */
+    public static synchronized BitmapCache getDefaultBitmapCache() {
+        if (sDefaultBitmapCache == null) sDefaultBitmapCache = new BitmapCache(BitmapCache.getDefaultMaxSize());
+        return sDefaultBitmapCache;
+    }
+
+    /**
+     * @return 默认构造方法使用的复用池, 进程内只有一个, 大小为{@link BitmapPool#getDefaultMaxSize()}
+     */
+    public static synchronized BitmapPool getDefaultBitmapPool() {
+        if (sDefaultBitmapPool == null) sDefaultBitmapPool = new BitmapPool(BitmapPool.getDefaultMaxSize());
+        return sDefaultBitmapPool;
+    }
+
+    private static synchronized ExecutorService getDecodeExecutor() {
+        if (sDecodeExecutor == null) {
+            sDecodeExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "banner-decode");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sDecodeExecutor;
+    }
+
+    /**
+     * 显示图片, 页面之前显示的图片所有页面都不再显示并且已经从缓存中移除时, 放入复用池
+     *
+     * @param bitmap 显示的图片, 为null时页面不再显示复用的图片
+     */
+    private void show(ImageView view, Bitmap bitmap) {
+        Bitmap previous = (Bitmap) view.getTag(R.id.resource_image_bitmap);
+        if (previous == bitmap) return;
+        if (bitmap != null) {
+            view.setImageBitmap(bitmap);
+            mBitmapCache.onShown(bitmap);
+        }
+        view.setTag(R.id.resource_image_bitmap, bitmap);
+        if (previous != null) mBitmapCache.onHidden(previous);
+    }
+
+    /**
+     * 按照显示的大小解码图片, 采样率为保证图片不小于显示大小的最大的2的幂,
+     * 复用池中有足够大的图片时, 直接解码到该图片的内存中
+     *
+     * @param resources Resources
+     * @param resId     drawable资源id
+     * @param width     图片显示的宽度
+     * @param height    图片显示的高度
+     * @return 解码之后的图片, 解码失败时返回null
+     */
+    protected Bitmap decode(Resources resources, int resId, int width, int height) {
+        BitmapFactory.Options options = mOptions;
+        options.inJustDecodeBounds = true;
+        options.inScaled = false;
+        options.inSampleSize = 1;
+        options.inBitmap = null;
+        BitmapFactory.decodeResource(resources, resId, options);
+
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= width
+                && options.outHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inMutable = true;
+
+        // 不同格式的图片采样之后的大小取整方式不同, 按向上取整计算需要的内存
+        int decodeWidth = (options.outWidth + sampleSize - 1) / sampleSize;
+        int decodeHeight = (options.outHeight + sampleSize - 1) / sampleSize;
+        Bitmap.Config config = options.inPreferredConfig;
+        Bitmap reusable = mBitmapPool.getReusable(
+                decodeWidth * decodeHeight * BitmapPool.getBytesPerPixel(config), config);
+        options.inBitmap = reusable;
+        try {
+            Bitmap bitmap = BitmapFactory.decodeResource(resources, resId, options);
+            if (bitmap == null) mBitmapPool.put(reusable);
+            return bitmap;
+        } catch (IllegalArgumentException e) {
+            // 图片不能复用, 重新分配内存解码
+            mBitmapPool.put(reusable);
+            options.inBitmap = null;
+            return BitmapFactory.decodeResource(resources, resId, options);
+        } finally {
+            options.inBitmap = null;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.dzenm.banner;
 import android.view.View;
 
 import androidx.annotation.NonNull;
-import androidx.core.view.ViewCompat;
 import androidx.viewpager.widget.ViewPager;
 
 import com.dzenm.banner.impl.PageTransformer;
@@ -13,13 +12,8 @@ import com.dzenm.banner.impl.TransformerStyle;
  * @author dzenm
  * @date 2019-08-10 21:00
  */
-class Transformer implements ViewPager.PageTransformer {
+class Transformer implements ViewPager.PageTransformer, ViewPager.OnPageChangeListener {
 
-    private static final float MAX_SCALE = 1.0f;
-    private static final float MIN_SCALE = 0.85f;
-    private static final float MIN_ALPHA = 0.75f;
-
-    private static final float CENTER_PAGE_SCALE = 0.8f;
     private int mOffscreenPageLimit;
     private ViewPager mViewPager;
 
@@ -28,12 +22,46 @@ class Transformer implements ViewPager.PageTransformer {
 
     private PageTransformer mPageTransformer;
 
+    /**
+     * 内置的动画和通过关键帧描述的自定义动画, 为null时调用自定义的{@link PageTransformer}
+     */
+    private KeyframeTransformer mKeyframeTransformer;
+
+    /**
+     * 页面可见的范围, 页面位置的绝对值超出该范围时不需要再设置动画属性
+     */
+    private float mVisibleRange;
+
+    /**
+     * 计算可见范围时ViewPager和父布局的宽度, 宽度改变时重新计算
+     */
+    private int mPagerWidth = -1, mParentWidth = -1;
+
+    /**
+     * 滑动时是否将页面提升为硬件层 {@link #setHardwareLayerEnabled(boolean)}
+     */
+    private boolean isHardwareLayerEnabled = true;
+
+    /**
+     * 滑动时可见范围内的页面是否需要提升为硬件层
+     */
+    private boolean isLayerPromoted;
+
     Transformer(int style, @NonNull ViewPager viewPager,
                 PageTransformer pageTransformer) {
         mStyle = style;
         mViewPager = viewPager;
         mOffscreenPageLimit = mViewPager.getOffscreenPageLimit();
         mPageTransformer = pageTransformer;
+        if (mStyle == TransformerStyle.STYLE_FILM) {
+            mKeyframeTransformer = KeyframeTransformer.film();
+        } else if (mStyle == TransformerStyle.STYLE_COVER) {
+            mKeyframeTransformer = KeyframeTransformer.cover();
+        } else if (mStyle == TransformerStyle.STYLE_FOLD) {
+            mKeyframeTransformer = KeyframeTransformer.fold(mOffscreenPageLimit);
+        } else if (mStyle == TransformerStyle.STYLE_DIY && pageTransformer instanceof KeyframeTransformer) {
+            mKeyframeTransformer = (KeyframeTransformer) pageTransformer;
+        }
     }
 
     /**
@@ -46,93 +74,111 @@ class Transformer implements ViewPager.PageTransformer {
      */
     @Override
     public void transformPage(@NonNull View view, float position) {
-        if (mStyle == TransformerStyle.STYLE_FILM) {
-            transformer3D(view, position);
-        } else if (mStyle == TransformerStyle.STYLE_COVER) {
-            transformerCover(view, position);
-        } else if (mStyle == TransformerStyle.STYLE_FOLD) {
-            foldPager(view, position);
+        boolean isCulled = isCulled(view, position);
+        // 页面进入可见范围时提升为硬件层, 移出可见范围时恢复, 不可见的页面不需要占用硬件层的内存
+        setLayerPromoted(view, isLayerPromoted && view.getTag(R.id.transformer_culled) != Boolean.TRUE
+                && Math.abs(position) < getVisibleRange());
+        if (isCulled) return;
+        if (mKeyframeTransformer != null) {
+            mKeyframeTransformer.apply(view, position);
         } else if (mStyle == TransformerStyle.STYLE_DIY) {
             mPageTransformer.transformPage(view, mViewPager, position);
         }
     }
 
-    private void transformer3D(View page, float position) {
-        if (position < -1) {
-            page.setScaleX(MIN_SCALE);
-            page.setScaleY(MIN_SCALE);
-            page.setAlpha(MIN_ALPHA);
-        } else if (position <= 1) {
-            float scaleFactor = MIN_SCALE + (1 - Math.abs(position)) * (MAX_SCALE - MIN_SCALE);
-            // [0, 1 ）相对于当前选中页，其右边第一页
-            if (position > 0) page.setTranslationX(-scaleFactor * 2);
-                // [-1, 0) 相对于当前选中页，其左边的第一页
-            else if (position < 0) page.setTranslationX(scaleFactor * 2);
-
-            page.setScaleY(scaleFactor);
-            page.setScaleX(scaleFactor);
-
-            float alpha = MIN_ALPHA + (1 - MIN_ALPHA) * (1 - Math.abs(position));
-            page.setAlpha(alpha);//透明度
-        } else {
-            page.setScaleX(MIN_SCALE);
-            page.setScaleY(MIN_SCALE);
-            page.setAlpha(MIN_ALPHA);
-        }
+    /**
+     * 设置滑动时是否将页面提升为硬件层, 页面的透明度, 缩放和旋转动画只需要合成硬件层,
+     * 不需要每一帧重新绘制页面, 静止后页面恢复为普通层
+     */
+    void setHardwareLayerEnabled(boolean enabled) {
+        isHardwareLayerEnabled = enabled;
+        if (!enabled) setLayerPromoted(false);
     }
 
-    private void transformerCover(View page, float position) {
-        if (position < -1) {
-            page.setAlpha(0);
-        } else if (position <= 0) {
-            // 左右移动, 并且移除时变透明
-            page.setAlpha(1 + position);
-        } else if (position < 1) {
-            // 去除左右移动效果
-            page.setTranslationX(-page.getWidth() * position);
-            // 进入时变大, 移除时变小
-            page.setScaleY(1 - position / 2);
-            page.setScaleX(1 - position / 2);
-            page.setAlpha(1 - position);
-        } else {
-            page.setAlpha(0);
-        }
+    @Override
+    public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
     }
 
-    private void foldPager(View view, float position) {
-        int pagerWidth = mViewPager.getWidth();
-        float horizontalOffsetBase =
-                (pagerWidth - pagerWidth * CENTER_PAGE_SCALE) / 2 / mOffscreenPageLimit + PagerLayout.dp2px(15);
+    @Override
+    public void onPageSelected(int position) {
+    }
 
-        if (position >= mOffscreenPageLimit || position <= -1) {
-            view.setVisibility(View.GONE);
-        } else {
-            view.setVisibility(View.VISIBLE);
+    @Override
+    public void onPageScrollStateChanged(int state) {
+        // 没有开启硬件加速时会退化为软件层, 反而每一帧都要重新绘制
+        boolean promote = isHardwareLayerEnabled && mStyle != TransformerStyle.STYLE_NONE
+                && mViewPager.isHardwareAccelerated();
+        setLayerPromoted(promote && state != ViewPager.SCROLL_STATE_IDLE);
+    }
+
+    /**
+     * 开始滑动时只记录状态, 页面在{@link #transformPage(View, float)}中进入可见范围时才提升为硬件层,
+     * 滑动停止时恢复所有页面
+     *
+     * @param promoted 滑动时是否将可见范围内的页面提升为硬件层
+     */
+    private void setLayerPromoted(boolean promoted) {
+        if (promoted == isLayerPromoted) return;
+        isLayerPromoted = promoted;
+        if (promoted) return;
+        for (int i = 0; i < mViewPager.getChildCount(); i++) {
+            setLayerPromoted(mViewPager.getChildAt(i), false);
         }
+    }
 
-        if (position >= 0) {
-            float translationX = (horizontalOffsetBase - view.getWidth()) * position;
-            view.setTranslationX(translationX);
+    private static void setLayerPromoted(View view, boolean promoted) {
+        int layerType = promoted ? View.LAYER_TYPE_HARDWARE : View.LAYER_TYPE_NONE;
+        if (view.getLayerType() != layerType) view.setLayerType(layerType, null);
+    }
+
+    /**
+     * 判断页面是否已经移出可见范围, 页面第一次移出可见范围时仍然设置一次动画属性,
+     * 之后直到页面重新进入可见范围之前都不再设置
+     *
+     * @param view     滑动的view
+     * @param position 页面的位置
+     * @return 是否跳过该页面
+     */
+    private boolean isCulled(View view, float position) {
+        // 自定义动画无法确定页面的可见范围
+        if (mKeyframeTransformer == null) return false;
+        boolean isVisible = Math.abs(position) < getVisibleRange();
+        boolean isCulled = view.getTag(R.id.transformer_culled) == Boolean.TRUE;
+        if (isVisible) {
+            if (isCulled) view.setTag(R.id.transformer_culled, Boolean.FALSE);
+            return false;
         }
-        if (position > -1 && position < 0) {
-            float rotation = position * 30;
-            view.setRotation(rotation);
-            view.setAlpha((position * position * position + 1));
-        } else if (position > mOffscreenPageLimit - 1) {
-            view.setAlpha((float) (1 - position + Math.floor(position)));
-        } else {
-            view.setRotation(0);
-            view.setAlpha(1);
+        if (isCulled) return true;
+        view.setTag(R.id.transformer_culled, Boolean.TRUE);
+        return false;
+    }
+
+    /**
+     * 计算页面的可见范围, 画廊效果时页面可以显示在ViewPager之外, 可见范围需要加上ViewPager到父布局边缘的距离,
+     * 层叠效果时后面的页面会通过位移叠加显示, 可见范围至少为关键帧的位置范围.
+     * 自定义动画只用于判断是否提升为硬件层, 不会跳过设置动画属性
+     *
+     * @return 以页面宽度为单位的可见范围
+     */
+    private float getVisibleRange() {
+        View parent = (View) mViewPager.getParent();
+        int pagerWidth = mViewPager.getWidth();
+        int parentWidth = parent == null ? pagerWidth : parent.getWidth();
+        if (pagerWidth == mPagerWidth && parentWidth == mParentWidth) return mVisibleRange;
+        mPagerWidth = pagerWidth;
+        mParentWidth = parentWidth;
+
+        int clientWidth = pagerWidth - mViewPager.getPaddingLeft() - mViewPager.getPaddingRight();
+        if (clientWidth <= 0) {
+            mVisibleRange = Float.MAX_VALUE;
+            return mVisibleRange;
         }
-        if (position == 0) {
-            view.setScaleX(CENTER_PAGE_SCALE);
-            view.setScaleY(CENTER_PAGE_SCALE);
-        } else {
-            float scaleFactor = Math.min(CENTER_PAGE_SCALE - position * 0.1f, CENTER_PAGE_SCALE);
-            view.setScaleX(scaleFactor);
-            view.setScaleY(scaleFactor);
+        int outside = Math.max(mViewPager.getPaddingLeft(), mViewPager.getPaddingRight());
+        if (parent != null && !mViewPager.getClipChildren()) {
+            outside += Math.max(mViewPager.getLeft(), parentWidth - mViewPager.getRight());
         }
-
-        ViewCompat.setElevation(view, (mOffscreenPageLimit - position) * 5);
+        mVisibleRange = 1 + (float) outside / clientWidth;
+        if (mKeyframeTransformer != null) mVisibleRange = Math.max(mVisibleRange, mKeyframeTransformer.getRange());
+        return mVisibleRange;
     }
 }
@@ -31,6 +31,18 @@ class ViewPagerAdapter extends PagerAdapter {
         return view == object;
     }
 
+    /**
+     * 循环时页面会在列表中移动位置, 返回页面当前所在的位置
+     *
+     * @param object 页面的View
+     * @return 页面所在的位置
+     */
+    @Override
+    public int getItemPosition(@NonNull Object object) {
+        int position = mViews.indexOf(object);
+        return position == -1 ? POSITION_NONE : position;
+    }
+
     @NonNull
     @Override
     public Object instantiateItem(@NonNull ViewGroup container, int position) {
@@ -0,0 +1,17 @@
+package com.dzenm.banner.impl;
+
+import android.graphics.Bitmap;
+
+public interface OnBitmapEvictedListener {
+
+    /**
+     * 图片从缓存中移除
+     *
+     * @param source  图片的来源
+     * @param width   图片显示的宽度
+     * @param height  图片显示的高度
+     * @param bitmap  移除的图片
+     * @param evicted true为超出缓存大小时移除的最久未使用的图片, false为主动移除或者被替换的图片
+     */
+    void onBitmapEvicted(Object source, int width, int height, Bitmap bitmap, boolean evicted);
+}
@@ -0,0 +1,37 @@
+package com.dzenm.banner.impl;
+
+import android.view.View;
+
+import com.dzenm.banner.ImageRequest;
+
+/**
+ * <pre>
+ * 可以取消的图片加载器, 页面布局完成之后才会加载图片. 同一个页面每次重新绑定图片时, 之前还没有完成的请求
+ * 会通过{@link #onCancel(ImageRequest)}取消, 异步加载完成时请求已经取消的结果需要丢弃.
+ * 使用该接口时不会再调用{@link #onLoader(android.view.View, Object)}, 可以空实现
+ * </pre>
+ */
+public interface RequestImageLoader extends ImageLoader {
+
+    /**
+     * 图片显示到页面上之后需要调用{@link ImageRequest#notifyReady()}, 自动播放可以等待下一页的图片显示之后再切换
+     *
+     * @param request 加载请求, 包括页面, 图片资源和显示的大小
+     */
+    void onLoader(ImageRequest request);
+
+    /**
+     * 取消请求, 还没有开始的加载不需要再执行
+     *
+     * @param request 被取消的请求
+     */
+    void onCancel(ImageRequest request);
+
+    /**
+     * 页面被回收或者banner销毁时调用, 页面之前的请求已经取消, 需要释放页面显示的图片,
+     * 页面之后可能被丢弃, 也可能重新绑定其它图片
+     *
+     * @param view 不再使用的页面
+     */
+    void onRelease(View view);
+}
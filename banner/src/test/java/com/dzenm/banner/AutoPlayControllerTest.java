@@ -0,0 +1,75 @@
+package com.dzenm.banner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <pre>
+ * 自动播放按照固定周期切换, 不会累积误差, 触摸时暂停, 松开之后重新计算完整的周期
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class AutoPlayControllerTest {
+
+    private static final long PERIOD = 1000;
+
+    private int mTicks;
+    private AutoPlayController mAutoPlay;
+
+    @Before
+    public void setUp() {
+        mAutoPlay = new AutoPlayController(new Runnable() {
+            @Override
+            public void run() {
+                mTicks++;
+            }
+        });
+        mAutoPlay.setAttached(true);
+    }
+
+    @Test
+    public void play_fixedPeriodWithoutDrift() {
+        mAutoPlay.play(PERIOD);
+        // 每次空闲的时间和周期不对齐, 切换的次数仍然只取决于经过的时间
+        for (int i = 0; i < 100; i++) idle(300);
+        assertEquals(30, mTicks);
+        mAutoPlay.stop();
+    }
+
+    @Test
+    public void touching_pausesAndRestartsFullPeriod() {
+        mAutoPlay.play(PERIOD);
+        idle(PERIOD);
+        assertEquals(1, mTicks);
+
+        idle(PERIOD / 2);
+        mAutoPlay.setTouching(true);
+        assertFalse(mAutoPlay.isScheduled());
+        idle(PERIOD * 3);
+        assertEquals(1, mTicks);
+
+        // 松开之后等待完整的周期, 不会马上切换
+        mAutoPlay.setTouching(false);
+        assertTrue(mAutoPlay.isScheduled());
+        idle(PERIOD - 1);
+        assertEquals(1, mTicks);
+        idle(1);
+        assertEquals(2, mTicks);
+        mAutoPlay.stop();
+    }
+
+    private static void idle(long millis) {
+        ShadowLooper.idleMainLooper(millis, TimeUnit.MILLISECONDS);
+    }
+}
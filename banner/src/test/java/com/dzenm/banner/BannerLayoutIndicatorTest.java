@@ -0,0 +1,90 @@
+package com.dzenm.banner;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+import com.dzenm.banner.impl.ImageLoader;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <pre>
+ * 模拟一次滑动, 统计滑动过程中指示器移动引起的布局次数
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BannerLayoutIndicatorTest {
+
+    private static final int SWIPE_FRAMES = 30;
+
+    private Activity mActivity;
+
+    /**
+     * 布局的次数
+     */
+    private int mLayoutPasses;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.buildActivity(Activity.class).setup().get();
+    }
+
+    @Test
+    public void swipeWithLayoutIndicator_noLayoutPass() {
+        BannerLayout banner = newBanner(false);
+        assertEquals(0, swipe(banner));
+    }
+
+    @Test
+    public void swipeWithDrawIndicator_noLayoutPass() {
+        BannerLayout banner = newBanner(true);
+        assertEquals(0, swipe(banner));
+    }
+
+    private BannerLayout newBanner(boolean drawIndicator) {
+        BannerLayout banner = new BannerLayout(mActivity);
+        banner.setDrawIndicator(drawIndicator)
+                .setImageLoader(new ImageLoader() {
+                    @Override
+                    public void onLoader(View view, Object imageResource) {
+                    }
+                })
+                .load(new Object[]{1, 2, 3, 4, 5})
+                .build();
+        mActivity.setContentView(banner, new ViewGroup.LayoutParams(1080, 500));
+        ShadowLooper.idleMainLooper();
+        banner.getViewTreeObserver().addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
+            @Override
+            public void onGlobalLayout() {
+                mLayoutPasses++;
+            }
+        });
+        return banner;
+    }
+
+    /**
+     * 从中间页向右滑动一页, 每一帧回调一次onPageScrolled
+     *
+     * @return 滑动过程中的布局次数
+     */
+    private int swipe(BannerLayout banner) {
+        mLayoutPasses = 0;
+        for (int frame = 1; frame < SWIPE_FRAMES; frame++) {
+            float offset = (float) frame / SWIPE_FRAMES;
+            banner.onPageScrolled(banner.getCenterPage(), offset, (int) (offset * 1080));
+            ShadowLooper.idleMainLooper();
+        }
+        return mLayoutPasses;
+    }
+}
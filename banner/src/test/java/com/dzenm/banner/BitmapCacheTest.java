@@ -0,0 +1,78 @@
+package com.dzenm.banner;
+
+import android.graphics.Bitmap;
+
+import com.dzenm.banner.impl.OnBitmapEvictedListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <pre>
+ * 缓存按照图片来源和大小查找, 按照图片占用的字节数移除最久未使用的图片
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BitmapCacheTest {
+
+    private BitmapCache mCache;
+    private List<Object> mEvicted = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Bitmap sample = newBitmap();
+        mCache = new BitmapCache(sample.getAllocationByteCount() * 2);
+        mCache.setOnBitmapEvictedListener(new OnBitmapEvictedListener() {
+            @Override
+            public void onBitmapEvicted(Object source, int width, int height, Bitmap bitmap, boolean evicted) {
+                mEvicted.add(source);
+            }
+        });
+    }
+
+    @Test
+    public void get_keyedBySourceAndSize() {
+        Bitmap bitmap = newBitmap();
+        mCache.put(1, 10, 10, bitmap);
+        assertSame(bitmap, mCache.get(1, 10, 10));
+        assertNull(mCache.get(1, 20, 10));
+        assertNull(mCache.get(2, 10, 10));
+        assertEquals(bitmap.getAllocationByteCount(), mCache.size());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() {
+        mCache.put(1, 10, 10, newBitmap());
+        mCache.put(2, 10, 10, newBitmap());
+        mCache.get(1, 10, 10);
+        mCache.put(3, 10, 10, newBitmap());
+
+        assertNull(mCache.get(2, 10, 10));
+        assertEquals(1, mEvicted.size());
+        assertEquals(2, mEvicted.get(0));
+        assertEquals(mCache.maxSize(), mCache.size());
+    }
+
+    @Test
+    public void remove_notifiesListener() {
+        mCache.put(1, 10, 10, newBitmap());
+        mCache.remove(1, 10, 10);
+        assertEquals(0, mCache.size());
+        assertEquals(1, mEvicted.size());
+    }
+
+    private static Bitmap newBitmap() {
+        return Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    }
+}
@@ -0,0 +1,69 @@
+package com.dzenm.banner;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <pre>
+ * 复用池按照格式和字节数取出图片, 总字节数不超过最大值
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BitmapPoolTest {
+
+    private static final int BYTES = 10 * 10 * 4;
+
+    @Test
+    public void getReusable_matchesConfigAndSize() {
+        BitmapPool pool = new BitmapPool(BYTES * 10);
+        Bitmap bitmap = newBitmap(10, 10);
+        pool.put(bitmap);
+
+        assertNull(pool.getReusable(BYTES + 1, Bitmap.Config.ARGB_8888));
+        assertNull(pool.getReusable(BYTES, Bitmap.Config.RGB_565));
+        // 太小的图片不复用大图片的内存
+        assertNull(pool.getReusable(BYTES / 5, Bitmap.Config.ARGB_8888));
+        assertSame(bitmap, pool.getReusable(BYTES / 2, Bitmap.Config.ARGB_8888));
+        assertEquals(0, pool.size());
+        assertNull(pool.getReusable(BYTES / 2, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void put_trimsOldestOverBudget() {
+        BitmapPool pool = new BitmapPool(BYTES * 2);
+        Bitmap first = newBitmap(10, 10);
+        Bitmap second = newBitmap(10, 10);
+        Bitmap third = newBitmap(10, 10);
+        pool.put(first);
+        pool.put(second);
+        pool.put(third);
+
+        assertEquals(BYTES * 2, pool.size());
+        assertSame(third, pool.getReusable(BYTES, Bitmap.Config.ARGB_8888));
+        assertSame(second, pool.getReusable(BYTES, Bitmap.Config.ARGB_8888));
+        assertNull(pool.getReusable(BYTES, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void put_ignoresImmutableAndDuplicate() {
+        BitmapPool pool = new BitmapPool(BYTES * 10);
+        Bitmap bitmap = newBitmap(10, 10);
+        pool.put(bitmap);
+        pool.put(bitmap);
+        pool.put(bitmap.copy(Bitmap.Config.ARGB_8888, false));
+        assertEquals(BYTES, pool.size());
+    }
+
+    private static Bitmap newBitmap(int width, int height) {
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+}
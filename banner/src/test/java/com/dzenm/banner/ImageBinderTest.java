@@ -0,0 +1,267 @@
+package com.dzenm.banner;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.dzenm.banner.impl.ImageLoader;
+import com.dzenm.banner.impl.ImagePrefetcher;
+import com.dzenm.banner.impl.RequestImageLoader;
+import com.dzenm.banner.impl.SizedImageLoader;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <pre>
+ * 页面布局之前延迟加载, 加载时的大小为页面除去padding的大小, 重新绑定时取消之前的请求,
+ * 只有最近一次的请求可以通知图片已经显示, 以及预加载的范围和取消
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ImageBinderTest {
+
+    private int mLoads, mWidth, mHeight;
+    private Object mImageResource;
+
+    private ImageBinder mImageBinder;
+    private ImageView mView;
+
+    @Before
+    public void setUp() {
+        mImageBinder = new ImageBinder(new SizedImageLoader() {
+            @Override
+            public void onLoader(View view, Object imageResource) {
+                throw new AssertionError("sized loader should not receive unsized loads");
+            }
+
+            @Override
+            public void onLoader(View view, Object imageResource, int width, int height) {
+                mLoads++;
+                mImageResource = imageResource;
+                mWidth = width;
+                mHeight = height;
+            }
+        });
+        mView = new ImageView(ApplicationProvider.getApplicationContext());
+        mView.setPadding(10, 10, 10, 10);
+    }
+
+    @Test
+    public void bindBeforeLayout_loadsOnceWithContentSize() {
+        mImageBinder.bind(mView, 1);
+        mImageBinder.bind(mView, 2);
+        assertEquals(0, mLoads);
+
+        layout(300, 200);
+        assertEquals(1, mLoads);
+        assertEquals(2, mImageResource);
+        assertEquals(280, mWidth);
+        assertEquals(180, mHeight);
+
+        // 大小不变时重新布局不会再次加载
+        layout(300, 200);
+        assertEquals(1, mLoads);
+    }
+
+    @Test
+    public void bindAfterLayout_loadsImmediately() {
+        layout(300, 200);
+        mImageBinder.bind(mView, 3);
+        assertEquals(1, mLoads);
+        assertEquals(3, mImageResource);
+    }
+
+    @Test
+    public void sizeChanged_reloads() {
+        mImageBinder.bind(mView, 4);
+        layout(300, 200);
+        layout(600, 400);
+        assertEquals(2, mLoads);
+        assertEquals(580, mWidth);
+        assertEquals(380, mHeight);
+    }
+
+    @Test
+    public void rebind_cancelsPreviousRequest() {
+        final List<ImageRequest> loaded = new ArrayList<>();
+        final List<ImageRequest> cancelled = new ArrayList<>();
+        final List<View> released = new ArrayList<>();
+        ImageBinder binder = new ImageBinder(new RequestImageLoader() {
+            @Override
+            public void onLoader(View view, Object imageResource) {
+            }
+
+            @Override
+            public void onLoader(ImageRequest request) {
+                loaded.add(request);
+            }
+
+            @Override
+            public void onCancel(ImageRequest request) {
+                cancelled.add(request);
+            }
+
+            @Override
+            public void onRelease(View view) {
+                released.add(view);
+            }
+        });
+        layout(300, 200);
+        binder.bind(mView, 1);
+        binder.bind(mView, 2);
+        binder.bind(mView, 3);
+
+        assertEquals(3, loaded.size());
+        assertEquals(Arrays.asList(loaded.get(0), loaded.get(1)), cancelled);
+        assertTrue(loaded.get(0).isCancelled());
+        assertTrue(loaded.get(1).isCancelled());
+        assertFalse(loaded.get(2).isCancelled());
+        assertEquals(3, loaded.get(2).getImageResource());
+        assertEquals(280, loaded.get(2).getWidth());
+
+        // 布局之前重新绑定时, 只在布局完成之后加载最后一次绑定的图片
+        loaded.clear();
+        ImageView view = new ImageView(ApplicationProvider.getApplicationContext());
+        binder.bind(view, 4);
+        binder.bind(view, 5);
+        view.layout(0, 0, 100, 100);
+        assertEquals(1, loaded.size());
+        assertEquals(5, loaded.get(0).getImageResource());
+
+        // 释放页面时取消还没有完成的请求
+        binder.release(view);
+        assertTrue(loaded.get(0).isCancelled());
+        assertEquals(Arrays.<View>asList(view), released);
+    }
+
+    @Test
+    public void notifyReady_onlyLatestRequest() {
+        final List<ImageRequest> loaded = new ArrayList<>();
+        final List<View> ready = new ArrayList<>();
+        ImageBinder binder = new ImageBinder(new RequestImageLoader() {
+            @Override
+            public void onLoader(View view, Object imageResource) {
+            }
+
+            @Override
+            public void onLoader(ImageRequest request) {
+                loaded.add(request);
+            }
+
+            @Override
+            public void onCancel(ImageRequest request) {
+            }
+
+            @Override
+            public void onRelease(View view) {
+            }
+        });
+        binder.setOnImageReadyListener(new ImageBinder.OnImageReadyListener() {
+            @Override
+            public void onImageReady(View view, long loadTime) {
+                ready.add(view);
+            }
+        });
+        layout(300, 200);
+        binder.bind(mView, 1);
+        binder.bind(mView, 2);
+        assertFalse(binder.isReady(mView));
+
+        // 已经取消的请求完成时不会通知
+        loaded.get(0).notifyReady();
+        assertFalse(binder.isReady(mView));
+        assertTrue(ready.isEmpty());
+
+        loaded.get(1).notifyReady();
+        loaded.get(1).notifyReady();
+        assertTrue(binder.isReady(mView));
+        assertEquals(Arrays.<View>asList(mView), ready);
+
+        // 重新绑定之后等待新的请求
+        binder.bind(mView, 3);
+        assertFalse(binder.isReady(mView));
+
+        // 不能通知图片已经显示的加载器不需要等待
+        assertTrue(mImageBinder.isReady(mView));
+    }
+
+    @Test
+    public void prefetch_loopWindowMovesAndCancels() {
+        PrefetchLoader loader = new PrefetchLoader();
+        ImageBinder binder = new ImageBinder(loader);
+        Context context = ApplicationProvider.getApplicationContext();
+        Object[] images = {0, 1, 2, 3, 4, 5, 6, 7};
+
+        // 当前页左右各一页已经添加到ViewPager中, 预加载左右第二页
+        binder.prefetch(context, images, 0, 1, 1, true, false);
+        assertEquals(Arrays.asList(2, 6), loader.mPrefetched);
+
+        binder.prefetch(context, images, 0, 1, 1, true, false);
+        assertEquals(2, loader.mPrefetched.size());
+
+        binder.prefetch(context, images, 1, 1, 1, true, false);
+        assertEquals(Arrays.asList(2, 6, 3, 7), loader.mPrefetched);
+        assertEquals(Arrays.asList(2, 6), loader.mCancelled);
+
+        // 自动播放时只预加载后面的图片
+        binder.prefetch(context, images, 1, 1, 1, true, true);
+        assertEquals(Arrays.asList(2, 6, 7), loader.mCancelled);
+
+        binder.cancelPrefetch(context, images);
+        assertEquals(Arrays.asList(2, 6, 7, 3), loader.mCancelled);
+    }
+
+    @Test
+    public void prefetch_skipsPagesAlreadyShown() {
+        PrefetchLoader loader = new PrefetchLoader();
+        ImageBinder binder = new ImageBinder(loader);
+        Context context = ApplicationProvider.getApplicationContext();
+
+        binder.prefetch(context, new Object[]{0, 1, 2, 3}, 0, 1, 2, true, false);
+        assertEquals(Arrays.asList(2), loader.mPrefetched);
+
+        binder.prefetch(context, new Object[]{0, 1, 2, 3}, 0, 1, 2, false, false);
+        assertEquals(Arrays.asList(2, 3), loader.mPrefetched);
+    }
+
+    private static class PrefetchLoader implements ImageLoader, ImagePrefetcher {
+
+        private List<Integer> mPrefetched = new ArrayList<>();
+        private List<Integer> mCancelled = new ArrayList<>();
+
+        @Override
+        public void onLoader(View view, Object imageResource) {
+        }
+
+        @Override
+        public void onPrefetch(Context context, Object imageResource, int position, int width, int height) {
+            mPrefetched.add(position);
+        }
+
+        @Override
+        public void onCancelPrefetch(Context context, Object imageResource, int position) {
+            mCancelled.add(position);
+        }
+    }
+
+    private void layout(int width, int height) {
+        mView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        mView.layout(0, 0, width, height);
+    }
+}
@@ -0,0 +1,80 @@
+package com.dzenm.banner;
+
+import android.view.View;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * <pre>
+ * 关键帧采样之后的值与原来内置动画的公式比较
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class KeyframeTransformerTest {
+
+    private static final float DELTA = 1e-3f;
+
+    @Test
+    public void film_matchesFormula() {
+        KeyframeTransformer film = KeyframeTransformer.film();
+        for (float position = -2; position <= 2; position += 0.05f) {
+            float fraction = 1 - Math.min(Math.abs(position), 1);
+            assertEquals(0.85f + fraction * 0.15f, film.getValue(KeyframeTransformer.SCALE_X, position), DELTA);
+            assertEquals(0.75f + fraction * 0.25f, film.getValue(KeyframeTransformer.ALPHA, position), DELTA);
+        }
+        assertFalse(film.hasProperty(KeyframeTransformer.ROTATION));
+    }
+
+    @Test
+    public void fold_matchesFormula() {
+        int limit = 3;
+        KeyframeTransformer fold = KeyframeTransformer.fold(limit);
+        for (float position = -0.95f; position < 0; position += 0.05f) {
+            float alpha = position * position * position + 1;
+            assertEquals(alpha, fold.getValue(KeyframeTransformer.ALPHA, position), DELTA);
+            assertEquals(position * 30, fold.getValue(KeyframeTransformer.ROTATION, position), DELTA);
+        }
+        for (float position = 0; position < limit; position += 0.05f) {
+            float alpha = position > limit - 1 ? (float) (1 - position + Math.floor(position)) : 1;
+            assertEquals(alpha, fold.getValue(KeyframeTransformer.ALPHA, position), DELTA);
+            assertEquals(0.8f - position * 0.1f, fold.getValue(KeyframeTransformer.SCALE_Y, position), DELTA);
+            assertEquals((limit - position) * 5, fold.getValue(KeyframeTransformer.ELEVATION, position), DELTA);
+        }
+        assertEquals(limit, fold.getRange(), 0);
+    }
+
+    @Test
+    public void apply_setsPageProperties() {
+        KeyframeTransformer transformer = new KeyframeTransformer.Builder()
+                .keyframe(KeyframeTransformer.TRANSLATION_X, 0, 0f)
+                .keyframe(KeyframeTransformer.TRANSLATION_X, 1, -1f)
+                .setVisibleRange(-1, 1)
+                .build();
+        View page = new View(ApplicationProvider.getApplicationContext());
+        page.layout(0, 0, 200, 100);
+
+        transformer.apply(page, 0.5f);
+        assertEquals(-100f, page.getTranslationX(), DELTA);
+        assertEquals(View.VISIBLE, page.getVisibility());
+        assertEquals(1f, page.getAlpha(), 0);
+
+        transformer.apply(page, 1f);
+        assertEquals(View.GONE, page.getVisibility());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateKeyframe_throws() {
+        new KeyframeTransformer.Builder()
+                .keyframe(KeyframeTransformer.ALPHA, 0, 1f)
+                .keyframe(KeyframeTransformer.ALPHA, 0, 0.5f);
+    }
+}
@@ -0,0 +1,174 @@
+package com.dzenm.banner;
+
+import androidx.viewpager.widget.ViewPager;
+
+import com.dzenm.banner.impl.OnMetricsListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <pre>
+ * 性能指标的统计和批量回调
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class MetricsRecorderTest {
+
+    /**
+     * 60Hz和120Hz的刷新周期(纳秒)
+     */
+    private static final long FRAME_60 = 16666667L, FRAME_120 = 8333333L;
+
+    private int mDispatchCount;
+    private BannerMetrics mMetrics;
+    private int mSwipeCount, mScrollCount, mAutoPlayTicks, mLoadCount;
+    private int mFrameCount, mJankyFrameCount, mMaxJankyFrames;
+    private long mMaxSettleTime, mMaxLoadTime;
+
+    private OnMetricsListener mListener = new OnMetricsListener() {
+        @Override
+        public void onMetrics(BannerMetrics metrics) {
+            if (mMetrics != null) assertSame(mMetrics, metrics);
+            mMetrics = metrics;
+            mDispatchCount++;
+            mSwipeCount = metrics.getSwipeCount();
+            mScrollCount = metrics.getScrollCount();
+            mFrameCount = metrics.getFrameCount();
+            mJankyFrameCount = metrics.getJankyFrameCount();
+            mMaxJankyFrames = metrics.getMaxJankyFrames();
+            mMaxSettleTime = metrics.getMaxSettleTime();
+            mAutoPlayTicks = metrics.getAutoPlayTicks();
+            mLoadCount = metrics.getLoadCount();
+            mMaxLoadTime = metrics.getMaxLoadTime();
+        }
+    };
+
+    @Before
+    public void setUp() {
+        mDispatchCount = 0;
+        mMetrics = null;
+    }
+
+    @Test
+    public void swipe_settleTimeFromReleaseToIdle() {
+        MetricsRecorder recorder = new MetricsRecorder(mListener, 0);
+        swipe(recorder, 300, 250);
+        assertEquals(1, mDispatchCount);
+        assertEquals(1, mSwipeCount);
+        assertEquals(250, mMaxSettleTime);
+    }
+
+    @Test
+    public void dispatch_batchedByInterval() {
+        MetricsRecorder recorder = new MetricsRecorder(mListener, 1000);
+        recorder.onImageShown(40);
+        swipe(recorder, 100, 100);
+        recorder.onAutoPlayTick();
+        assertEquals(0, mDispatchCount);
+
+        // 超过间隔之后在页面静止时回调, 回调之后清零
+        advance(1000);
+        swipe(recorder, 100, 100);
+        assertEquals(1, mDispatchCount);
+        assertEquals(2, mSwipeCount);
+        assertEquals(1, mAutoPlayTicks);
+        assertEquals(1, mLoadCount);
+        assertEquals(40, mMaxLoadTime);
+        assertEquals(0, mMetrics.getSwipeCount());
+
+        // 移除时回调剩余的数据, 没有数据时不回调
+        recorder.onAutoPlayTick();
+        recorder.flush();
+        assertEquals(2, mDispatchCount);
+        assertEquals(0, mSwipeCount);
+        assertEquals(1, mAutoPlayTicks);
+        recorder.flush();
+        assertEquals(2, mDispatchCount);
+    }
+
+    @Test
+    public void autoPlayScroll_notCountedAsSwipe() {
+        MetricsRecorder recorder = new MetricsRecorder(mListener, 0);
+        recorder.onPageScrollStateChanged(ViewPager.SCROLL_STATE_SETTLING);
+        advance(300);
+        recorder.onPageScrollStateChanged(ViewPager.SCROLL_STATE_IDLE);
+        assertEquals(1, mDispatchCount);
+        assertEquals(0, mSwipeCount);
+        assertEquals(1, mScrollCount);
+    }
+
+    @Test
+    public void doFrame_countsFramesAndJankPerScroll() {
+        MetricsRecorder recorder = new MetricsRecorder(mListener, Long.MAX_VALUE);
+        recorder.setRefreshRate(60);
+        // 第一帧只记录时间, 之后间隔超过1.5个刷新周期的帧为卡顿的帧
+        scroll(recorder, FRAME_60, FRAME_60, FRAME_60 * 3, FRAME_60);
+        scroll(recorder, FRAME_60 * 2, FRAME_60, FRAME_60 * 2);
+        recorder.flush();
+
+        assertEquals(1, mDispatchCount);
+        assertEquals(2, mScrollCount);
+        assertEquals(7, mFrameCount);
+        assertEquals(3, mJankyFrameCount);
+        assertEquals(2, mMaxJankyFrames);
+    }
+
+    @Test
+    public void setRefreshRate_changesJankThreshold() {
+        MetricsRecorder recorder = new MetricsRecorder(mListener, Long.MAX_VALUE);
+        recorder.setRefreshRate(120);
+        scroll(recorder, FRAME_120, FRAME_60, FRAME_120);
+        recorder.flush();
+        assertEquals(3, mFrameCount);
+        assertEquals(1, mJankyFrameCount);
+
+        // 无效的刷新率按60Hz计算
+        recorder.setRefreshRate(0);
+        scroll(recorder, FRAME_60, FRAME_60 * 2);
+        recorder.flush();
+        assertEquals(2, mFrameCount);
+        assertEquals(1, mJankyFrameCount);
+    }
+
+    /**
+     * 一次自动滑动, 直接回调每一帧的时间
+     *
+     * @param intervals 每一帧和上一帧的间隔(纳秒)
+     */
+    private void scroll(MetricsRecorder recorder, long... intervals) {
+        recorder.onPageScrollStateChanged(ViewPager.SCROLL_STATE_SETTLING);
+        long frameTime = 1000000000L;
+        recorder.doFrame(frameTime);
+        for (long interval : intervals) {
+            frameTime += interval;
+            recorder.doFrame(frameTime);
+        }
+        recorder.onPageScrollStateChanged(ViewPager.SCROLL_STATE_IDLE);
+    }
+
+    /**
+     * 手指拖动dragTime之后抬起, 经过settleTime之后静止
+     */
+    private void swipe(MetricsRecorder recorder, long dragTime, long settleTime) {
+        recorder.onPageScrollStateChanged(ViewPager.SCROLL_STATE_DRAGGING);
+        advance(dragTime);
+        recorder.onPageScrollStateChanged(ViewPager.SCROLL_STATE_SETTLING);
+        advance(settleTime);
+        recorder.onPageScrollStateChanged(ViewPager.SCROLL_STATE_IDLE);
+    }
+
+    private void advance(long millis) {
+        ShadowLooper.idleMainLooper(millis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,151 @@
+package com.dzenm.banner;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import com.dzenm.banner.impl.OnBitmapEvictedListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <pre>
+ * 多个加载器共用一个缓存时, 缓存移除的图片在所有页面都不再显示之后才放入复用池,
+ * 没有传入缓存和复用池的加载器共用默认的实例, banner销毁时释放页面显示的图片
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ResourceImageLoaderTest {
+
+    private static final int SIZE = 10;
+
+    private Activity mActivity;
+    private BitmapCache mCache;
+    private BitmapPool mPool;
+    private int mEvictedCount;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.buildActivity(Activity.class).setup().get();
+        mCache = new BitmapCache(BitmapCache.getDefaultMaxSize());
+        mPool = new BitmapPool(BitmapPool.getDefaultMaxSize());
+        mCache.setOnBitmapEvictedListener(new OnBitmapEvictedListener() {
+            @Override
+            public void onBitmapEvicted(Object source, int width, int height, Bitmap bitmap, boolean evicted) {
+                mEvictedCount++;
+            }
+        });
+    }
+
+    @Test
+    public void sharedCache_pooledOnlyWhenNoBannerShowsBitmap() {
+        ResourceImageLoader first = new ResourceImageLoader(mCache, mPool);
+        ResourceImageLoader second = new ResourceImageLoader(mCache, mPool);
+        Bitmap shared = newBitmap(), other = newBitmap();
+        mCache.put(1, SIZE, SIZE, shared);
+        mCache.put(2, SIZE, SIZE, other);
+
+        ImageView firstView = new ImageView(mActivity), secondView = new ImageView(mActivity);
+        load(first, firstView, 1);
+        load(second, secondView, 1);
+
+        // 缓存移除时两个banner都在显示, 不能放入复用池
+        mCache.remove(1, SIZE, SIZE);
+        assertEquals(1, mEvictedCount);
+        assertEquals(0, mPool.size());
+
+        // 第一个banner不再显示, 第二个banner还在显示
+        load(first, firstView, 2);
+        assertEquals(0, mPool.size());
+
+        // 所有banner都不再显示之后才放入复用池
+        load(second, secondView, 2);
+        assertEquals(shared.getAllocationByteCount(), mPool.size());
+        assertSame(shared, mPool.getReusable(shared.getAllocationByteCount(), shared.getConfig()));
+    }
+
+    @Test
+    public void sharedCache_keepsEvictedListener() {
+        new ResourceImageLoader(mCache, mPool);
+        new ResourceImageLoader(mCache, mPool);
+        mCache.put(1, SIZE, SIZE, newBitmap());
+        mCache.remove(1, SIZE, SIZE);
+        assertEquals(1, mEvictedCount);
+        // 没有显示的图片移除时直接放入复用池
+        assertEquals(newBitmap().getAllocationByteCount(), mPool.size());
+        assertNull(mCache.get(1, SIZE, SIZE));
+    }
+
+    @Test
+    public void defaultConstructor_sharesCacheAndPool() {
+        ResourceImageLoader first = new ResourceImageLoader(), second = new ResourceImageLoader();
+        assertSame(first.getBitmapCache(), second.getBitmapCache());
+        assertSame(first.getBitmapPool(), second.getBitmapPool());
+        assertSame(ResourceImageLoader.getDefaultBitmapCache(), first.getBitmapCache());
+        assertSame(ResourceImageLoader.getDefaultBitmapPool(), new ResourceImageLoader(mCache).getBitmapPool());
+    }
+
+    @Test
+    public void destroy_releasesShownBitmaps() {
+        final List<Bitmap> bitmaps = new ArrayList<>();
+        ResourceImageLoader loader = new ResourceImageLoader(mCache, mPool) {
+            @Override
+            public void onLoader(ImageRequest request) {
+                // 先放入缓存, 加载在当前线程中完成
+                Object source = request.getImageResource();
+                if (mCache.get(source, request.getWidth(), request.getHeight()) == null) {
+                    Bitmap bitmap = newBitmap();
+                    bitmaps.add(bitmap);
+                    mCache.put(source, request.getWidth(), request.getHeight(), bitmap);
+                }
+                super.onLoader(request);
+            }
+        };
+        BannerLayout banner = new BannerLayout(mActivity);
+        banner.setImageLoader(loader)
+                .load(new Object[]{1, 2, 3})
+                .build();
+        mActivity.setContentView(banner, new ViewGroup.LayoutParams(1080, 500));
+        ShadowLooper.idleMainLooper();
+        assertTrue(bitmaps.size() > 0);
+
+        // 页面还在显示, 移除的图片不能放入复用池
+        mCache.evictAll();
+        assertEquals(0, mPool.size());
+
+        banner.destroy();
+        assertEquals(bitmaps.size() * newBitmap().getAllocationByteCount(), mPool.size());
+        for (int i = 0; i < banner.getViewPager().getChildCount(); i++) {
+            assertNull(((ImageView) banner.getViewPager().getChildAt(i)).getDrawable());
+        }
+    }
+
+    /**
+     * 缓存中已经有图片时, 加载在当前线程中完成
+     */
+    private void load(ResourceImageLoader loader, View view, Object imageResource) {
+        ImageBinder binder = new ImageBinder(loader);
+        loader.onLoader(new ImageRequest(binder, view, imageResource, SIZE, SIZE));
+    }
+
+    private static Bitmap newBitmap() {
+        return Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+    }
+}
@@ -0,0 +1,144 @@
+package com.dzenm.banner2;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <pre>
+ * IndicatorView每一帧的绘制不能分配对象, 在真机上统计当前线程分配的对象数量, 不同指示器数量下都应该为0.
+ * 每一帧的绘制时间只输出到日志中用于对比, 不作为判断的条件
+ * </pre>
+ */
+@RunWith(AndroidJUnit4.class)
+public class IndicatorViewDrawBenchmark {
+
+    private static final String TAG = IndicatorViewDrawBenchmark.class.getSimpleName();
+
+    private static final int[] COUNTS = {5, 20, 80, 200};
+    private static final int WARM_UP_FRAMES = 200;
+    private static final int FRAMES = 1000;
+
+    @Test
+    public void scaleIndicator() {
+        benchmark(IndicatorView.IndicatorScroll.SCALE, false);
+    }
+
+    @Test
+    public void splitIndicator() {
+        benchmark(IndicatorView.IndicatorScroll.SPLIT, false);
+    }
+
+    @Test
+    public void staticLayer() {
+        benchmark(IndicatorView.IndicatorScroll.SCALE, true);
+    }
+
+    /**
+     * 改变颜色之后在下一次绘制时重新绘制缓存的图层, 大小不变时复用图层和画布
+     */
+    @Test
+    public void staticLayerRebuild() {
+        final IndicatorView view = createView(IndicatorView.IndicatorScroll.SCALE, 20, true);
+        final Canvas canvas = createCanvas(view);
+        for (int frame = 0; frame < WARM_UP_FRAMES; frame++) {
+            rebuildFrame(view, canvas, frame);
+        }
+        int allocations = countAllocations(new Runnable() {
+            @Override
+            public void run() {
+                for (int frame = 0; frame < FRAMES; frame++) {
+                    rebuildFrame(view, canvas, frame);
+                }
+            }
+        });
+        assertEquals("objects allocated while rebuilding the static layer", 0, allocations);
+    }
+
+    private void benchmark(@IndicatorView.IndicatorScroll int type, boolean cacheStaticLayer) {
+        for (final int count : COUNTS) {
+            final IndicatorView view = createView(type, count, cacheStaticLayer);
+            final Canvas canvas = createCanvas(view);
+            for (int frame = 0; frame < WARM_UP_FRAMES; frame++) {
+                drawFrame(view, canvas, frame, count);
+            }
+
+            final long[] elapsed = new long[1];
+            int allocations = countAllocations(new Runnable() {
+                @Override
+                public void run() {
+                    long start = SystemClock.elapsedRealtimeNanos();
+                    for (int frame = 0; frame < FRAMES; frame++) {
+                        drawFrame(view, canvas, frame, count);
+                    }
+                    elapsed[0] = SystemClock.elapsedRealtimeNanos() - start;
+                }
+            });
+            Log.i(TAG, "type " + type + ", count " + count + ", static layer " + cacheStaticLayer + ": "
+                    + elapsed[0] / FRAMES + " ns/frame, " + elapsed[0] / FRAMES / count + " ns/dot");
+            assertEquals("objects allocated in " + FRAMES + " frames with " + count + " dots",
+                    0, allocations);
+        }
+    }
+
+    private IndicatorView createView(int type, int count, boolean cacheStaticLayer) {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        IndicatorView view = new IndicatorView(context);
+        view.setIndicatorScrollType(type);
+        view.setCacheStaticLayer(cacheStaticLayer);
+        view.setTotalCount(count);
+        view.measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        return view;
+    }
+
+    private Canvas createCanvas(View view) {
+        return new Canvas(Bitmap.createBitmap(Math.max(view.getWidth(), 1),
+                Math.max(view.getHeight(), 1), Bitmap.Config.ARGB_8888));
+    }
+
+    /**
+     * 模拟一次滑动中的一帧, 当前页在中间位置, 偏移量在[0, 1)之间变化
+     */
+    private void drawFrame(IndicatorView view, Canvas canvas, int frame, int count) {
+        float offset = (frame % 20) / 20f;
+        view.applyPageScrolled(count / 2, offset);
+        view.draw(canvas);
+    }
+
+    /**
+     * 每一帧交替改变正常状态的颜色, 使缓存的图层在绘制时重新绘制
+     */
+    private void rebuildFrame(IndicatorView view, Canvas canvas, int frame) {
+        view.setNormalColor(frame % 2 == 0 ? Color.RED : Color.GRAY);
+        view.draw(canvas);
+    }
+
+    /**
+     * 统计当前线程执行期间分配的对象数量. 分配计数在API 23之后被标记为过时, 但ART仍然支持, 并且没有替代的接口
+     */
+    @SuppressWarnings("deprecation")
+    private static int countAllocations(Runnable runnable) {
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        try {
+            runnable.run();
+        } finally {
+            Debug.stopAllocCounting();
+        }
+        return Debug.getThreadAllocCount();
+    }
+}
@@ -0,0 +1,161 @@
+package com.dzenm.banner2;
+
+import android.os.SystemClock;
+
+/**
+ * <pre>
+ * 一段时间内banner的性能指标, 由{@link com.dzenm.banner2.impl.OnMetricsListener}批量回调.
+ * 回调的始终是同一个对象, 回调结束之后会清零并开始统计下一段时间, 需要保存时在回调中复制需要的数值
+ * 时间的单位都为毫秒, 来自{@link SystemClock#uptimeMillis()}
+ * </pre>
+ */
+public final class BannerMetrics {
+
+    /**
+     * 统计的开始和结束时间
+     */
+    private long mStartTime, mEndTime;
+
+    /**
+     * 手指滑动的次数
+     */
+    private int mSwipeCount;
+
+    /**
+     * 手指抬起到页面静止的总时间和最长时间
+     */
+    private long mTotalSettleTime, mMaxSettleTime;
+
+    /**
+     * 页面滑动(包括手指滑动和自动播放)的次数, 以及滑动过程中的帧数和卡顿的帧数
+     */
+    private int mScrollCount, mFrameCount, mJankyFrameCount;
+
+    /**
+     * 一次滑动中最多的卡顿帧数
+     */
+    private int mMaxJankyFrames;
+
+    /**
+     * 图片从发起加载到显示的次数, 总时间和最长时间
+     */
+    private int mLoadCount;
+    private long mTotalLoadTime, mMaxLoadTime;
+
+    /**
+     * 自动播放的次数
+     */
+    private int mAutoPlayTicks;
+
+    BannerMetrics() {
+        reset(SystemClock.uptimeMillis());
+    }
+
+    public long getStartTime() {
+        return mStartTime;
+    }
+
+    public long getEndTime() {
+        return mEndTime;
+    }
+
+    public int getSwipeCount() {
+        return mSwipeCount;
+    }
+
+    /**
+     * @return 所有手指滑动从抬起到静止的总时间, 除以{@link #getSwipeCount()}为平均时间
+     */
+    public long getTotalSettleTime() {
+        return mTotalSettleTime;
+    }
+
+    public long getMaxSettleTime() {
+        return mMaxSettleTime;
+    }
+
+    /**
+     * @return 页面滑动的次数, 包括手指滑动, 自动播放以及调用{@link PagerLayout#nextPage()}等方法引起的滑动
+     */
+    public int getScrollCount() {
+        return mScrollCount;
+    }
+
+    /**
+     * @return 滑动过程中的帧数, 除以{@link #getScrollCount()}为每次滑动的平均帧数
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * @return 滑动过程中和上一帧的间隔超过1.5个刷新周期的帧数
+     */
+    public int getJankyFrameCount() {
+        return mJankyFrameCount;
+    }
+
+    public int getMaxJankyFrames() {
+        return mMaxJankyFrames;
+    }
+
+    /**
+     * @return 图片显示的次数, 只统计实现了{@link com.dzenm.banner2.impl.RequestImageLoader}的加载器
+     */
+    public int getLoadCount() {
+        return mLoadCount;
+    }
+
+    public long getTotalLoadTime() {
+        return mTotalLoadTime;
+    }
+
+    public long getMaxLoadTime() {
+        return mMaxLoadTime;
+    }
+
+    public int getAutoPlayTicks() {
+        return mAutoPlayTicks;
+    }
+
+    /**
+     * @return 是否统计到了数据
+     */
+    boolean isEmpty() {
+        return mScrollCount == 0 && mLoadCount == 0 && mAutoPlayTicks == 0;
+    }
+
+    void addSettle(long settleTime) {
+        mSwipeCount++;
+        mTotalSettleTime += settleTime;
+        mMaxSettleTime = Math.max(mMaxSettleTime, settleTime);
+    }
+
+    void addScroll(int frameCount, int jankyFrameCount) {
+        mScrollCount++;
+        mFrameCount += frameCount;
+        mJankyFrameCount += jankyFrameCount;
+        mMaxJankyFrames = Math.max(mMaxJankyFrames, jankyFrameCount);
+    }
+
+    void addLoad(long loadTime) {
+        mLoadCount++;
+        mTotalLoadTime += loadTime;
+        mMaxLoadTime = Math.max(mMaxLoadTime, loadTime);
+    }
+
+    void addAutoPlayTick() {
+        mAutoPlayTicks++;
+    }
+
+    void setEndTime(long endTime) {
+        mEndTime = endTime;
+    }
+
+    void reset(long startTime) {
+        mStartTime = mEndTime = startTime;
+        mSwipeCount = mScrollCount = mFrameCount = mJankyFrameCount = mMaxJankyFrames = 0;
+        mLoadCount = mAutoPlayTicks = 0;
+        mTotalSettleTime = mMaxSettleTime = mTotalLoadTime = mMaxLoadTime = 0;
+    }
+}
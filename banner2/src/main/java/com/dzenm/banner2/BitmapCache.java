@@ -0,0 +1,224 @@
+package com.dzenm.banner2;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import com.dzenm.banner2.impl.OnBitmapEvictedListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * <pre>
+ * 解码之后的图片的内存缓存, 按照图片来源和显示的大小缓存, 超出缓存大小时移除最久未使用的图片.
+ * 缓存大小按照图片实际占用的内存{@link Bitmap#getAllocationByteCount()}计算.
+ * 多个banner共用一个缓存时, 缓存记录所有页面正在显示的图片, 移除的图片在所有页面都不再显示之后才放入复用池.
+ * 页面被回收或者banner销毁时会释放页面显示的图片
+ *
+ * BitmapCache cache = new BitmapCache(BitmapCache.getDefaultMaxSize());
+ * Bitmap bitmap = cache.get(imageResource, width, height);
+ * if (bitmap == null) {
+ *     bitmap = decode(imageResource, width, height);
+ *     cache.put(imageResource, width, height, bitmap);
+ * }
+ * </pre>
+ */
+public class BitmapCache {
+
+    private final LruCache<Key, Bitmap> mCache;
+
+    /**
+     * 查找时复用的Key, 查找图片时不需要创建对象
+     */
+    private final Key mLookupKey = new Key();
+
+    private OnBitmapEvictedListener mOnBitmapEvictedListener;
+
+    /**
+     * 移除并且不再显示的图片放入的复用池 {@link #setBitmapPool(BitmapPool)}
+     */
+    private BitmapPool mBitmapPool;
+
+    /**
+     * 页面正在显示的图片, 以及显示该图片的页面数量
+     */
+    private final HashMap<Bitmap, Integer> mShownCounts = new HashMap<>();
+
+    /**
+     * 已经从缓存中移除, 但是还在显示的图片, 不再显示时放入复用池
+     */
+    private final HashSet<Bitmap> mEvictedBitmaps = new HashSet<>();
+
+    /**
+     * @param maxSize 缓存的最大字节数
+     */
+    public BitmapCache(int maxSize) {
+        mCache = new LruCache<Key, Bitmap>(maxSize) {
+            @Override
+            protected int sizeOf(Key key, Bitmap bitmap) {
+                return key.mByteCount;
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Key key, Bitmap oldValue, Bitmap newValue) {
+                if (oldValue == newValue) return;
+                onRemoved(oldValue);
+                if (mOnBitmapEvictedListener == null) return;
+                mOnBitmapEvictedListener.onBitmapEvicted(key.mSource, key.mWidth, key.mHeight, oldValue, evicted);
+            }
+        };
+    }
+
+    /**
+     * @return 默认的缓存大小, 为应用最大可用内存的1/8
+     */
+    public static int getDefaultMaxSize() {
+        return (int) Math.min(Runtime.getRuntime().maxMemory() / 8, Integer.MAX_VALUE);
+    }
+
+    public void setOnBitmapEvictedListener(OnBitmapEvictedListener listener) {
+        mOnBitmapEvictedListener = listener;
+    }
+
+    /**
+     * 设置移除的图片放入的复用池, 多个加载器共用缓存时使用最后设置的复用池
+     */
+    synchronized void setBitmapPool(BitmapPool bitmapPool) {
+        mBitmapPool = bitmapPool;
+    }
+
+    /**
+     * 页面开始显示图片
+     */
+    synchronized void onShown(Bitmap bitmap) {
+        Integer count = mShownCounts.get(bitmap);
+        mShownCounts.put(bitmap, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * 页面不再显示图片, 所有页面都不再显示并且已经从缓存中移除时, 放入复用池
+     */
+    synchronized void onHidden(Bitmap bitmap) {
+        Integer count = mShownCounts.get(bitmap);
+        if (count == null) return;
+        if (count > 1) {
+            mShownCounts.put(bitmap, count - 1);
+            return;
+        }
+        mShownCounts.remove(bitmap);
+        if (mEvictedBitmaps.remove(bitmap) && mBitmapPool != null) mBitmapPool.put(bitmap);
+    }
+
+    /**
+     * 图片从缓存中移除, 还在显示时等到不再显示之后再放入复用池
+     */
+    private synchronized void onRemoved(Bitmap bitmap) {
+        if (mShownCounts.containsKey(bitmap)) {
+            mEvictedBitmaps.add(bitmap);
+        } else if (mBitmapPool != null) {
+            mBitmapPool.put(bitmap);
+        }
+    }
+
+    /**
+     * @param source 图片的来源, 例如资源id或者url, 需要正确实现equals和hashCode
+     * @param width  图片显示的宽度
+     * @param height 图片显示的高度
+     * @return 缓存的图片, 没有缓存时返回null
+     */
+    public synchronized Bitmap get(Object source, int width, int height) {
+        mLookupKey.set(source, width, height);
+        Bitmap bitmap = mCache.get(mLookupKey);
+        mLookupKey.mSource = null;
+        return bitmap;
+    }
+
+    /**
+     * 缓存图片, 大于缓存大小的图片不会被缓存
+     *
+     * @param source 图片的来源
+     * @param width  图片显示的宽度
+     * @param height 图片显示的高度
+     * @param bitmap 解码之后的图片
+     */
+    public synchronized void put(Object source, int width, int height, Bitmap bitmap) {
+        Key key = new Key();
+        key.set(source, width, height);
+        // 缓存之后图片可能被重新配置, 按缓存时占用的内存计算, 保证移除时大小一致
+        key.mByteCount = bitmap.getAllocationByteCount();
+        mCache.put(key, bitmap);
+    }
+
+    public synchronized Bitmap remove(Object source, int width, int height) {
+        mLookupKey.set(source, width, height);
+        Bitmap bitmap = mCache.remove(mLookupKey);
+        mLookupKey.mSource = null;
+        return bitmap;
+    }
+
+    public void evictAll() {
+        mCache.evictAll();
+    }
+
+    /**
+     * 在{@link ComponentCallbacks2#onTrimMemory(int)}中调用, 内存不足时减少缓存
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            mCache.trimToSize(mCache.maxSize() / 2);
+        }
+    }
+
+    /**
+     * @return 缓存中所有图片占用的字节数
+     */
+    public int size() {
+        return mCache.size();
+    }
+
+    public int maxSize() {
+        return mCache.maxSize();
+    }
+
+    public int hitCount() {
+        return mCache.hitCount();
+    }
+
+    public int missCount() {
+        return mCache.missCount();
+    }
+
+    private static class Key {
+
+        private Object mSource;
+        private int mWidth, mHeight;
+
+        /**
+         * 缓存时图片占用的字节数
+         */
+        private int mByteCount;
+
+        private void set(Object source, int width, int height) {
+            mSource = source;
+            mWidth = width;
+            mHeight = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return mWidth == key.mWidth && mHeight == key.mHeight && mSource.equals(key.mSource);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * mSource.hashCode() + mWidth) + mHeight;
+        }
+    }
+}
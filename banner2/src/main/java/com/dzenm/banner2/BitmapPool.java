@@ -0,0 +1,158 @@
+package com.dzenm.banner2;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <pre>
+ * 不再显示的图片的复用池, 按照图片的格式和占用的字节数分组保存. 解码新的图片时通过
+ * {@link BitmapFactory.Options#inBitmap}复用池中大小合适的图片的内存, 不需要重新分配,
+ * 自动播放时不会因为频繁创建和回收图片引起GC. 池中图片的总字节数不超过最大值, 超出时移除最早放入的图片
+ * </pre>
+ */
+public class BitmapPool {
+
+    /**
+     * 复用的图片最多为需要大小的倍数, 避免小图片占用大图片的内存
+     */
+    private static final int MAX_SIZE_MULTIPLE = 4;
+
+    private final int mMaxSize;
+    private int mSize;
+
+    /**
+     * 按照格式分组, 每组按照占用的字节数排序
+     */
+    private final Map<Bitmap.Config, TreeMap<Integer, ArrayList<Bitmap>>> mBuckets = new HashMap<>();
+
+    /**
+     * 放入的顺序
+     */
+    private final ArrayDeque<Bitmap> mBitmaps = new ArrayDeque<>();
+
+    /**
+     * @param maxSize 池中图片的最大字节数
+     */
+    public BitmapPool(int maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * @return 默认的最大字节数, 为应用最大可用内存的1/16
+     */
+    public static int getDefaultMaxSize() {
+        return (int) Math.min(Runtime.getRuntime().maxMemory() / 16, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 放入不再显示的图片, 放入之后不能再使用该图片. 不可修改的图片不能被复用, 会被忽略
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable() || bitmap.getConfig() == null) return;
+        int byteCount = bitmap.getAllocationByteCount();
+        if (byteCount > mMaxSize || mBitmaps.contains(bitmap)) return;
+
+        TreeMap<Integer, ArrayList<Bitmap>> buckets = mBuckets.get(bitmap.getConfig());
+        if (buckets == null) {
+            buckets = new TreeMap<>();
+            mBuckets.put(bitmap.getConfig(), buckets);
+        }
+        ArrayList<Bitmap> bucket = buckets.get(byteCount);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets.put(byteCount, bucket);
+        }
+        bucket.add(bitmap);
+        mBitmaps.addLast(bitmap);
+        mSize += byteCount;
+        trimToSize(mMaxSize);
+    }
+
+    /**
+     * 取出一张可以用于{@link BitmapFactory.Options#inBitmap}的图片, 取出的图片不再属于复用池
+     *
+     * @param byteCount 解码之后的图片需要的字节数
+     * @param config    解码的格式
+     * @return 占用的字节数不小于byteCount的图片, 没有合适的图片时返回null
+     */
+    public synchronized Bitmap getReusable(int byteCount, Bitmap.Config config) {
+        TreeMap<Integer, ArrayList<Bitmap>> buckets = mBuckets.get(config);
+        if (buckets == null) return null;
+        Map.Entry<Integer, ArrayList<Bitmap>> entry = buckets.ceilingEntry(byteCount);
+        if (entry == null || entry.getKey() > (long) byteCount * MAX_SIZE_MULTIPLE) return null;
+        ArrayList<Bitmap> bucket = entry.getValue();
+        Bitmap bitmap = bucket.remove(bucket.size() - 1);
+        if (bucket.isEmpty()) buckets.remove(entry.getKey());
+        mBitmaps.remove(bitmap);
+        mSize -= entry.getKey();
+        return bitmap;
+    }
+
+    /**
+     * 取出一张指定大小的空白图片, 没有合适的图片时创建新的图片
+     */
+    public Bitmap get(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = getReusable(width * height * getBytesPerPixel(config), config);
+        if (bitmap == null) return Bitmap.createBitmap(width, height, config);
+        bitmap.reconfigure(width, height, config);
+        bitmap.eraseColor(0);
+        return bitmap;
+    }
+
+    /**
+     * 移除最早放入的图片, 直到总字节数不超过maxSize
+     */
+    public synchronized void trimToSize(int maxSize) {
+        while (mSize > maxSize) {
+            Bitmap bitmap = mBitmaps.pollFirst();
+            int byteCount = bitmap.getAllocationByteCount();
+            TreeMap<Integer, ArrayList<Bitmap>> buckets = mBuckets.get(bitmap.getConfig());
+            ArrayList<Bitmap> bucket = buckets.get(byteCount);
+            bucket.remove(bitmap);
+            if (bucket.isEmpty()) buckets.remove(byteCount);
+            mSize -= byteCount;
+        }
+    }
+
+    public void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * 在{@link ComponentCallbacks2#onTrimMemory(int)}中调用, 内存不足时减少复用的图片
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            trimToSize(mMaxSize / 2);
+        }
+    }
+
+    /**
+     * @return 池中所有图片占用的字节数
+     */
+    public synchronized int size() {
+        return mSize;
+    }
+
+    public int maxSize() {
+        return mMaxSize;
+    }
+
+    static int getBytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.ALPHA_8) return 1;
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) return 2;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && config == Bitmap.Config.RGBA_F16) return 8;
+        return 4;
+    }
+}
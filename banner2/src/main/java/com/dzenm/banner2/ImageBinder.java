@@ -0,0 +1,294 @@
+package com.dzenm.banner2;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.View;
+import android.widget.ImageView;
+
+import com.dzenm.banner2.impl.ImageLoader;
+import com.dzenm.banner2.impl.ImagePrefetcher;
+import com.dzenm.banner2.impl.RequestImageLoader;
+import com.dzenm.banner2.impl.SizedImageLoader;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <pre>
+ * 页面和图片加载器之间的中间层, 所有页面的图片都通过该类加载.
+ * 使用{@link SizedImageLoader}或者{@link RequestImageLoader}时, 页面还没有布局的图片会等到布局完成之后再加载,
+ * 页面大小改变之后按新的大小重新加载. 使用{@link RequestImageLoader}时, 页面重新绑定图片会取消之前的请求,
+ * 请求通过{@link ImageRequest#notifyReady()}通知图片已经显示. 加载器实现了{@link ImagePrefetcher}时, 负责预加载相邻的图片
+ * </pre>
+ */
+final class ImageBinder implements View.OnLayoutChangeListener {
+
+    private final ImageLoader mImageLoader;
+
+    private OnImageReadyListener mOnImageReadyListener;
+
+    /**
+     * 最近一次加载时图片显示的大小, 预加载时使用相同的大小
+     */
+    private int mContentWidth, mContentHeight;
+
+    /**
+     * 正在预加载的图片位置, 以及计算新的预加载位置时使用的数组
+     */
+    private int[] mPrefetched = new int[0], mPrefetching = new int[0];
+    private int mPrefetchedCount;
+
+    ImageBinder(ImageLoader imageLoader) {
+        mImageLoader = imageLoader;
+    }
+
+    void setOnImageReadyListener(OnImageReadyListener listener) {
+        mOnImageReadyListener = listener;
+    }
+
+    /**
+     * 为页面加载图片
+     *
+     * @param view          页面
+     * @param imageResource 图片加载的资源
+     */
+    void bind(ImageView view, Object imageResource) {
+        if (!(mImageLoader instanceof SizedImageLoader) && !(mImageLoader instanceof RequestImageLoader)) {
+            mImageLoader.onLoader(view, imageResource);
+            return;
+        }
+        Target target = getTarget(view);
+        target.mImageResource = imageResource;
+        target.isReady = false;
+        cancel(target);
+        if (view.isLayoutRequested() || getContentWidth(view) <= 0 || getContentHeight(view) <= 0) {
+            // 等待布局完成之后在onLayoutChange中加载
+            target.isPending = true;
+        } else {
+            load(view, target);
+        }
+    }
+
+    @Override
+    public void onLayoutChange(View view, int left, int top, int right, int bottom,
+                               int oldLeft, int oldTop, int oldRight, int oldBottom) {
+        Target target = (Target) view.getTag(R.id.image_binder_target);
+        if (target == null || target.mImageResource == null) return;
+        int width = getContentWidth(view), height = getContentHeight(view);
+        if (width <= 0 || height <= 0) return;
+        if (target.isPending || width != target.mWidth || height != target.mHeight) {
+            load(view, target);
+        }
+    }
+
+    private void load(View view, Target target) {
+        target.isPending = false;
+        target.mWidth = getContentWidth(view);
+        target.mHeight = getContentHeight(view);
+        mContentWidth = target.mWidth;
+        mContentHeight = target.mHeight;
+        if (mImageLoader instanceof RequestImageLoader) {
+            cancel(target);
+            target.isReady = false;
+            target.mRequest = new ImageRequest(this, (ImageView) view, target.mImageResource, target.mWidth, target.mHeight);
+            ((RequestImageLoader) mImageLoader).onLoader(target.mRequest);
+        } else {
+            ((SizedImageLoader) mImageLoader).onLoader((ImageView) view, target.mImageResource,
+                    target.mWidth, target.mHeight);
+        }
+    }
+
+    /**
+     * 取消页面还没有完成的请求, 请求完成之后再取消不会有影响
+     */
+    private void cancel(Target target) {
+        ImageRequest request = target.mRequest;
+        if (request == null) return;
+        target.mRequest = null;
+        request.cancel();
+        ((RequestImageLoader) mImageLoader).onCancel(request);
+    }
+
+    /**
+     * 页面被回收或者banner销毁时, 取消页面还没有完成的请求, 并通知加载器释放页面显示的图片, 之后可以重新绑定
+     */
+    void release(ImageView view) {
+        Target target = (Target) view.getTag(R.id.image_binder_target);
+        if (target != null) {
+            cancel(target);
+            target.mImageResource = null;
+            target.isPending = false;
+            target.isReady = false;
+        }
+        if (mImageLoader instanceof RequestImageLoader) ((RequestImageLoader) mImageLoader).onRelease(view);
+    }
+
+    /**
+     * 请求的图片已经显示, 只处理页面最近一次的请求
+     */
+    void onReady(ImageRequest request) {
+        if (request.isCancelled()) return;
+        View view = request.getView();
+        Target target = (Target) view.getTag(R.id.image_binder_target);
+        if (target == null || target.mRequest != request || target.isReady) return;
+        target.isReady = true;
+        if (mOnImageReadyListener != null) {
+            mOnImageReadyListener.onImageReady(view, SystemClock.uptimeMillis() - request.getRequestTime());
+        }
+    }
+
+    /**
+     * @return 页面最近一次绑定的图片是否已经显示, 只有{@link RequestImageLoader}会通知图片已经显示,
+     * 其它加载器无法知道图片何时显示, 总是返回true
+     */
+    boolean isReady(View view) {
+        if (!(mImageLoader instanceof RequestImageLoader)) return true;
+        Target target = (Target) view.getTag(R.id.image_binder_target);
+        return target != null && target.isReady;
+    }
+
+    /**
+     * 预加载当前页面前后的图片, 已经添加到ViewPager中的页面会正常加载, 只预加载更远的图片.
+     * 上一次预加载的图片不在新的范围内时取消预加载
+     *
+     * @param context     Context
+     * @param images      所有的图片资源
+     * @param current     当前显示的图片位置
+     * @param skip        当前页面每一边已经添加到ViewPager中的页面数量
+     * @param count       每一边预加载的图片数量
+     * @param isLoop      是否循环显示
+     * @param forwardOnly 是否只预加载后面的图片
+     */
+    void prefetch(Context context, List images, int current, int skip, int count,
+                  boolean isLoop, boolean forwardOnly) {
+        if (!(mImageLoader instanceof ImagePrefetcher)) return;
+        if (mPrefetching.length < count * 2) {
+            mPrefetching = new int[count * 2];
+            mPrefetched = Arrays.copyOf(mPrefetched, count * 2);
+        }
+        int size = images.size(), prefetchingCount = 0;
+        for (int distance = skip + 1; distance <= skip + count; distance++) {
+            prefetchingCount = addPrefetch(current + distance, current, skip, size, isLoop, prefetchingCount);
+            if (!forwardOnly) {
+                prefetchingCount = addPrefetch(current - distance, current, skip, size, isLoop, prefetchingCount);
+            }
+        }
+
+        ImagePrefetcher prefetcher = (ImagePrefetcher) mImageLoader;
+        for (int i = 0; i < mPrefetchedCount; i++) {
+            int position = mPrefetched[i];
+            if (!contains(mPrefetching, prefetchingCount, position) && position < size) {
+                prefetcher.onCancelPrefetch(context, images.get(position), position);
+            }
+        }
+        for (int i = 0; i < prefetchingCount; i++) {
+            int position = mPrefetching[i];
+            if (!contains(mPrefetched, mPrefetchedCount, position)) {
+                prefetcher.onPrefetch(context, images.get(position), position, mContentWidth, mContentHeight);
+            }
+        }
+        int[] prefetched = mPrefetched;
+        mPrefetched = mPrefetching;
+        mPrefetching = prefetched;
+        mPrefetchedCount = prefetchingCount;
+    }
+
+    /**
+     * 取消所有的预加载
+     */
+    void cancelPrefetch(Context context, List images) {
+        if (!(mImageLoader instanceof ImagePrefetcher)) return;
+        ImagePrefetcher prefetcher = (ImagePrefetcher) mImageLoader;
+        for (int i = 0; i < mPrefetchedCount; i++) {
+            int position = mPrefetched[i];
+            if (position < images.size()) prefetcher.onCancelPrefetch(context, images.get(position), position);
+        }
+        mPrefetchedCount = 0;
+    }
+
+    /**
+     * @return 添加之后需要预加载的数量
+     */
+    private int addPrefetch(int position, int current, int skip, int size, boolean isLoop, int count) {
+        if (isLoop) {
+            position = (position % size + size) % size;
+            int distance = Math.abs(position - current);
+            // 图片数量较少时, 从另一个方向已经可以显示该图片
+            if (Math.min(distance, size - distance) <= skip) return count;
+        } else if (position < 0 || position >= size) {
+            return count;
+        }
+        if (contains(mPrefetching, count, position)) return count;
+        mPrefetching[count] = position;
+        return count + 1;
+    }
+
+    private static boolean contains(int[] positions, int count, int position) {
+        for (int i = 0; i < count; i++) if (positions[i] == position) return true;
+        return false;
+    }
+
+    /**
+     * @return 页面的加载状态, 第一次加载时创建并监听页面的布局
+     */
+    private Target getTarget(View view) {
+        Target target = (Target) view.getTag(R.id.image_binder_target);
+        if (target == null) {
+            target = new Target();
+            view.setTag(R.id.image_binder_target, target);
+            view.addOnLayoutChangeListener(this);
+        }
+        return target;
+    }
+
+    private static int getContentWidth(View view) {
+        return view.getWidth() - view.getPaddingLeft() - view.getPaddingRight();
+    }
+
+    private static int getContentHeight(View view) {
+        return view.getHeight() - view.getPaddingTop() - view.getPaddingBottom();
+    }
+
+    /**
+     * 页面的图片显示完成的监听
+     */
+    interface OnImageReadyListener {
+
+        /**
+         * @param view     图片已经显示的页面
+         * @param loadTime 图片从发起加载到显示的时间(毫秒)
+         */
+        void onImageReady(View view, long loadTime);
+    }
+
+    /**
+     * 页面的加载状态
+     */
+    private static class Target {
+
+        /**
+         * 页面当前绑定的图片资源
+         */
+        private Object mImageResource;
+
+        /**
+         * 是否在等待布局完成之后加载
+         */
+        private boolean isPending;
+
+        /**
+         * 上一次加载时图片显示的大小
+         */
+        private int mWidth, mHeight;
+
+        /**
+         * 页面最近一次的加载请求
+         */
+        private ImageRequest mRequest;
+
+        /**
+         * 最近一次请求的图片是否已经显示
+         */
+        private boolean isReady;
+    }
+}
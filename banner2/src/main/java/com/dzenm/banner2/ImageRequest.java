@@ -0,0 +1,101 @@
+package com.dzenm.banner2;
+
+import android.os.SystemClock;
+import android.widget.ImageView;
+
+/**
+ * <pre>
+ * 一次页面图片的加载请求, 页面重新绑定图片或者大小改变时, 之前的请求被取消.
+ * 异步加载完成之后需要先判断{@link #isCancelled()}, 已经取消的请求不能再显示到页面上
+ * </pre>
+ */
+public final class ImageRequest {
+
+    private final ImageBinder mImageBinder;
+    private final ImageView mView;
+    private final Object mImageResource;
+    private final int mWidth, mHeight;
+
+    /**
+     * 发起请求的时间, 用于统计图片从加载到显示的时间
+     */
+    private final long mRequestTime;
+
+    /**
+     * 在加载线程中读取
+     */
+    private volatile boolean isCancelled;
+
+    /**
+     * 加载器保存的数据, 例如取消加载时需要的Future
+     */
+    private Object mTag;
+
+    ImageRequest(ImageBinder imageBinder, ImageView view, Object imageResource, int width, int height) {
+        mImageBinder = imageBinder;
+        mView = view;
+        mImageResource = imageResource;
+        mWidth = width;
+        mHeight = height;
+        mRequestTime = SystemClock.uptimeMillis();
+    }
+
+    /**
+     * @return 图片加载的View
+     */
+    public ImageView getView() {
+        return mView;
+    }
+
+    /**
+     * @return 图片加载的资源
+     */
+    public Object getImageResource() {
+        return mImageResource;
+    }
+
+    /**
+     * @return 图片显示的宽度, 不包括View的padding
+     */
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /**
+     * @return 图片显示的高度, 不包括View的padding
+     */
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * @return 请求是否已经取消, 取消之后加载的结果不能再显示
+     */
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    long getRequestTime() {
+        return mRequestTime;
+    }
+
+    void cancel() {
+        isCancelled = true;
+    }
+
+    /**
+     * 图片显示到页面上之后在主线程中调用, 开启了{@link PagerLayout#setPlayWhenReady(long)}时,
+     * 自动播放等到下一页的图片显示之后才会切换. 已经取消的请求调用时不会有影响
+     */
+    public void notifyReady() {
+        mImageBinder.onReady(this);
+    }
+
+    public Object getTag() {
+        return mTag;
+    }
+
+    public void setTag(Object tag) {
+        mTag = tag;
+    }
+}
@@ -3,23 +3,25 @@ package com.dzenm.banner2;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.PointF;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.util.TypedValue;
+import android.view.Choreographer;
 import android.view.View;
 
 import androidx.annotation.IntDef;
 import androidx.annotation.Nullable;
 import androidx.viewpager.widget.ViewPager;
 
+import com.dzenm.banner.core.PagerState;
+
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
-import java.util.ArrayList;
-import java.util.List;
 
 public class IndicatorView extends View implements ViewPager.OnPageChangeListener {
 
@@ -56,13 +58,57 @@ public class IndicatorView extends View implements ViewPager.OnPageChangeListene
      * 指示器的总数量
      */
     private int mTotalCount;
-    private List<PointF> mControlPoints;
+
+    /**
+     * 绘制1/4圆弧的三阶贝塞尔曲线控制点相对坐标(相对圆心), 依次为P0~P7的x, y
+     */
+    private float[] mControlPoints;
 
     private int mCurrentPagePosition, mTargetPagePosition, mWidth, mHeight;
     private Path mArcPath, mSplitArcPath;
     private float mTranslationFactor;
     private boolean isLoop;
 
+    /**
+     * 根据ViewPager的滑动计算当前点, 目标点和滑动的比例 {@link PagerState}
+     */
+    private PagerState mPagerState = PagerState.linear(0);
+
+    /**
+     * 是否缓存静止的指示器 {@link #setCacheStaticLayer(boolean)}
+     */
+    private boolean isCacheStaticLayer;
+
+    /**
+     * 缓存所有正常状态指示器的图层, 滑动时只绘制当前点和目标点
+     */
+    private Bitmap mStaticLayer;
+
+    /**
+     * 绘制缓存图层的画布, 重新绘制图层时复用
+     */
+    private Canvas mStaticLayerCanvas;
+
+    /**
+     * 半径, 颜色, 间距或数量改变后需要重新绘制缓存的图层
+     */
+    private boolean isStaticLayerDirty = true;
+
+    /**
+     * 一帧内多次滑动回调只保留最后一次, 在下一帧开始时统一处理
+     */
+    private int mPendingPosition;
+    private float mPendingPositionOffset;
+    private boolean isFramePending;
+
+    private Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            isFramePending = false;
+            applyPageScrolled(mPendingPosition, mPendingPositionOffset);
+        }
+    };
+
     @IntDef({IndicatorScroll.SCALE, IndicatorScroll.SPLIT})
     @Retention(RetentionPolicy.SOURCE)
     public @interface IndicatorScroll {
@@ -93,6 +139,7 @@ public class IndicatorView extends View implements ViewPager.OnPageChangeListene
                 context.getResources().getColor(android.R.color.holo_red_light));
         mSelectedColor = typedArray.getColor(R.styleable.IndicatorView_selectedColor,
                 context.getResources().getColor(android.R.color.darker_gray));
+        isCacheStaticLayer = typedArray.getBoolean(R.styleable.IndicatorView_cacheStaticLayer, false);
         typedArray.recycle();
 
         initializePaint();
@@ -105,7 +152,8 @@ public class IndicatorView extends View implements ViewPager.OnPageChangeListene
     private void initializePaint() {
         mArcPath = new Path();
         mSplitArcPath = new Path();
-        mControlPoints = new ArrayList<>();
+        mControlPoints = new float[16];
+        mStaticLayerCanvas = new Canvas();
         adjustPaint();
         adjustSplitPoint();
     }
@@ -126,6 +174,7 @@ public class IndicatorView extends View implements ViewPager.OnPageChangeListene
         if (mIndicatorScrollType != IndicatorScroll.SPLIT) return;
         if (mSelectedRadius < mNormalRadius * SPLIT_RADIUS_FACTOR) {
             mSelectedRadius = (int) (mNormalRadius * SPLIT_RADIUS_FACTOR);
+            isStaticLayerDirty = true;
         }
     }
 
@@ -161,7 +210,8 @@ public class IndicatorView extends View implements ViewPager.OnPageChangeListene
                 x = mNormalRadius;
                 y = -(float) (mNormalRadius * FACTOR);
             }
-            mControlPoints.add(new PointF(x, y));
+            mControlPoints[i * 2] = x;
+            mControlPoints[i * 2 + 1] = y;
         }
     }
 
@@ -180,6 +230,56 @@ public class IndicatorView extends View implements ViewPager.OnPageChangeListene
         postInvalidate();
     }
 
+    /**
+     * @param radius 正常显示的指示器的半径
+     */
+    public void setNormalRadius(float radius) {
+        if (radius == mNormalRadius) return;
+        mNormalRadius = radius;
+        adjustControlPointPosition();
+        adjustSplitPoint();
+        invalidateStaticLayer();
+        requestLayout();
+    }
+
+    /**
+     * @param color 正常显示的指示器的颜色
+     */
+    public void setNormalColor(int color) {
+        if (color == mNormalColor) return;
+        mNormalColor = color;
+        mNormalPaint.setColor(color);
+        invalidateStaticLayer();
+    }
+
+    /**
+     * @param interval 两个指示器之间的距离
+     */
+    public void setPointInterval(int interval) {
+        if (interval == mPointInterval) return;
+        mPointInterval = interval;
+        invalidateStaticLayer();
+        requestLayout();
+    }
+
+    /**
+     * 缓存正常状态的指示器, 滑动时只重新绘制当前点和目标点, 适用于指示器数量较多的情况
+     */
+    public void setCacheStaticLayer(boolean cacheStaticLayer) {
+        if (cacheStaticLayer == isCacheStaticLayer) return;
+        isCacheStaticLayer = cacheStaticLayer;
+        if (!isCacheStaticLayer) releaseStaticLayer();
+        invalidateStaticLayer();
+    }
+
+    /**
+     * 标记缓存的图层需要重新绘制
+     */
+    private void invalidateStaticLayer() {
+        isStaticLayerDirty = true;
+        postInvalidate();
+    }
+
     public void bindViewPager(ViewPager viewPager) {
         setViewPagerBindIndicator(viewPager);
     }
@@ -191,35 +291,53 @@ public class IndicatorView extends View implements ViewPager.OnPageChangeListene
         if (adapter == null) {
             throw new RuntimeException("please set adapter before binding indicator");
         }
-        mTotalCount = adapter.getRealTotalCount();
-        Log.d(TAG, "total point count is " + mTotalCount);
         isLoop = adapter.getLoop();
+        setTotalCount(adapter.getRealTotalCount());
+    }
+
+    /**
+     * @param totalCount 指示器的总数量
+     */
+    void setTotalCount(int totalCount) {
+        mTotalCount = totalCount;
+        // 循环时ViewPager的位置为虚拟位置, 虚拟位置对指示器的数量取余即为实际位置
+        mPagerState = isLoop && totalCount > 0 ? PagerState.virtual(totalCount) : PagerState.linear(totalCount);
+        Log.d(TAG, "total point count is " + mTotalCount);
+        isStaticLayerDirty = true;
         measure(0, mHeightMeasureSpec);
     }
 
     @Override
     public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
-        // 动态计算当前页与目标页位置
-        if (positionOffset > 0) {             // 开始滑动后
-            if (position < mCurrentPagePosition) {  // 向左滑动
-                mTranslationFactor = 1 - positionOffset;
-                mCurrentPagePosition = position + 1;
-                mTargetPagePosition = position;
-            } else {                                // 向右滑动
-                mTranslationFactor = positionOffset;
-                mCurrentPagePosition = position;
-                mTargetPagePosition = position + 1;
-            }
-        } else {                                    // 滑动停止时
-            mTranslationFactor = positionOffset;
-            mCurrentPagePosition = position;
-            mTargetPagePosition = position;
+        // ViewPager在一帧内可能回调多次, 只记录最后一次的位置, 每一帧只处理一次
+        mPendingPosition = position;
+        mPendingPositionOffset = positionOffset;
+        if (!isFramePending) {
+            isFramePending = true;
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
         }
-        if (isLoop) {
-            mCurrentPagePosition = mCurrentPagePosition - 1;
-            mTargetPagePosition = mTargetPagePosition - 1;
+    }
+
+    /**
+     * 根据滑动的位置计算当前点和目标点, 没有变化时不会重绘
+     *
+     * @param position       当前页的位置
+     * @param positionOffset 当前页的偏移量
+     */
+    void applyPageScrolled(int position, float positionOffset) {
+        int lastCurrentPosition = mCurrentPagePosition, lastTargetPosition = mTargetPagePosition;
+        float lastTranslationFactor = mTranslationFactor;
+        // 动态计算当前页与目标页位置
+        mPagerState.onScrolled(position, positionOffset);
+        mTranslationFactor = mPagerState.getScrollFraction();
+        mCurrentPagePosition = mPagerState.getScrollCurrent();
+        mTargetPagePosition = mPagerState.getScrollTarget();
+        if (lastCurrentPosition == mCurrentPagePosition && lastTargetPosition == mTargetPagePosition
+                && lastTranslationFactor == mTranslationFactor) {
+            return;
         }
-        postInvalidate();
+        // 硬件加速时只能刷新整个View, 使用缓存的图层时重绘只需要绘制当前点和目标点
+        invalidate();
     }
 
     @Override
@@ -244,116 +362,109 @@ public class IndicatorView extends View implements ViewPager.OnPageChangeListene
         setMeasuredDimension(mWidth, mHeight);
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        isStaticLayerDirty = true;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (isFramePending) {
+            isFramePending = false;
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        }
+        releaseStaticLayer();
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         if (mTotalCount <= 0 || (mHeight <= 0 && mWidth <= 0)) return;
+        boolean drawStaticDots = true;
+        if (isCacheStaticLayer && getWidth() > 0 && getHeight() > 0) {
+            if (isStaticLayerDirty || mStaticLayer == null) buildStaticLayer();
+            canvas.drawBitmap(mStaticLayer, 0, 0, null);
+            drawStaticDots = false;
+        }
         if (mIndicatorScrollType == IndicatorScroll.SPLIT) {
-            drawSplitIndicator(canvas);
+            drawSplitIndicator(canvas, drawStaticDots);
         } else {
-            drawScaleIndicator(canvas);
+            drawScaleIndicator(canvas, drawStaticDots);
         }
     }
 
     /**
-     * 绘制指示器
-     *
-     * @param canvas 绘制的画布
+     * 将所有正常状态的指示器绘制到缓存的图层中
      */
-    private void drawScaleIndicator(Canvas canvas) {
-        float radius, centerXOffset = mSelectedRadius;
-        float centerX, centerY = mHeight / 2;
+    private void buildStaticLayer() {
+        if (mStaticLayer == null || mStaticLayer.getWidth() != getWidth()
+                || mStaticLayer.getHeight() != getHeight()) {
+            releaseStaticLayer();
+            mStaticLayer = Bitmap.createBitmap(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
+            mStaticLayerCanvas.setBitmap(mStaticLayer);
+        } else {
+            mStaticLayer.eraseColor(Color.TRANSPARENT);
+        }
+        Canvas canvas = mStaticLayerCanvas;
+        float centerY = mHeight / 2f;
+        mNormalPaint.setAlpha(255);
         for (int position = 0; position < mTotalCount; position++) {
-            centerX = position * mPointInterval + centerXOffset;
-            // 根据ViewPager滑动动态调整当前选中点和目标点半径
-            if (position == mCurrentPagePosition) {
-                radius = mNormalRadius + (1 - mTranslationFactor) * (mSelectedRadius - mNormalRadius);
-            } else if (position == mTargetPagePosition) {
-                radius = mNormalRadius + (mTranslationFactor) * (mSelectedRadius - mNormalRadius);
-            } else {
-                radius = mNormalRadius;
-            }
-            mArcPath.reset();
-            mArcPath.moveTo(centerX + radius, centerY);
+            canvas.drawCircle(position * mPointInterval + mSelectedRadius, centerY, mNormalRadius, mNormalPaint);
+        }
+        isStaticLayerDirty = false;
+    }
 
-            for (int pointPosition = 0; pointPosition < mControlPoints.size() / 2; pointPosition++) {
-                adjustPointScale(position, pointPosition, centerX, centerY, radius);
-                setIndicatorScrollAnimator(canvas, position);
-            }
+    private void releaseStaticLayer() {
+        if (mStaticLayer != null) {
+            mStaticLayerCanvas.setBitmap(null);
+            mStaticLayer.recycle();
+            mStaticLayer = null;
         }
+        isStaticLayerDirty = true;
     }
 
     /**
-     * 调整缩放的点
+     * 绘制指示器, 每个指示器每一帧只绘制一次, 当前点和目标点的颜色由选中颜色和正常颜色混合得到
      *
-     * @param position      ViewPager的位置
-     * @param pointPosition 指示器的位置
-     * @param x             中心点X
-     * @param y             中心点Y
-     * @param radius        圆角
+     * @param canvas         绘制的画布
+     * @param drawStaticDots 是否绘制正常状态的指示器, 使用缓存的图层时不需要绘制
      */
-    private void adjustPointScale(int position, int pointPosition, float x, float y, float radius) {
-        float endX, endY;
-        if (pointPosition == 0) {               // 相对于圆心，第一象限
-            endX = x;
-            endY = y + radius;
-        } else if (pointPosition == 1) {        // 相对于圆心，第二象限
-            endX = x - radius;
-            endY = y;
-        } else if (pointPosition == 2) {        // 相对于圆心，第三象限
-            endX = x;
-            endY = y - radius;
-        } else {                    // 相对于圆心，第四象限
-            endX = x + radius;
-            endY = y;
-        }
-        float controlPointX1, controlPointY1, controlPointX2, controlPointY2;
-        if (position == mCurrentPagePosition || position == mTargetPagePosition) {
-            // 控制点坐标根据ViewPager滑动做相应缩放
-            float stretchFactor = radius / mNormalRadius;
-            controlPointX1 = x + mControlPoints.get(pointPosition * 2).x * stretchFactor;
-            controlPointY1 = y + mControlPoints.get(pointPosition * 2).y * stretchFactor;
-            controlPointX2 = x + mControlPoints.get(pointPosition * 2 + 1).x * stretchFactor;
-            controlPointY2 = y + mControlPoints.get(pointPosition * 2 + 1).y * stretchFactor;
-        } else {
-            controlPointX1 = x + mControlPoints.get(pointPosition * 2).x;
-            controlPointY1 = y + mControlPoints.get(pointPosition * 2).y;
-            controlPointX2 = x + mControlPoints.get(pointPosition * 2 + 1).x;
-            controlPointY2 = y + mControlPoints.get(pointPosition * 2 + 1).y;
+    private void drawScaleIndicator(Canvas canvas, boolean drawStaticDots) {
+        float centerY = mHeight / 2f, centerXOffset = mSelectedRadius;
+        // 根据ViewPager滑动动态调整当前选中点和目标点半径和颜色, 每一帧只计算一次
+        float radiusDelta = mSelectedRadius - mNormalRadius;
+        float currentRadius = mNormalRadius + (1 - mTranslationFactor) * radiusDelta;
+        float targetRadius = mNormalRadius + mTranslationFactor * radiusDelta;
+        mSelectedPaint.setColor(blendColor(mNormalColor, mSelectedColor, 1 - mTranslationFactor));
+        mTargetPaint.setColor(blendColor(mNormalColor, mSelectedColor, mTranslationFactor));
+        mNormalPaint.setAlpha(255);
+
+        for (int position = 0; position < mTotalCount; position++) {
+            float centerX = position * mPointInterval + centerXOffset;
+            if (position == mCurrentPagePosition) {
+                canvas.drawCircle(centerX, centerY, currentRadius, mSelectedPaint);
+            } else if (position == mTargetPagePosition) {
+                canvas.drawCircle(centerX, centerY, targetRadius, mTargetPaint);
+            } else if (drawStaticDots) {
+                canvas.drawCircle(centerX, centerY, mNormalRadius, mNormalPaint);
+            }
         }
-        mArcPath.cubicTo(controlPointX1, controlPointY1, controlPointX2, controlPointY2, endX, endY);
     }
 
     /**
-     * 绘制指示器滑动的动画
+     * 绘制分裂样式的指示器, 只有当前点和目标点需要通过贝塞尔曲线变形, 其余的点直接绘制圆形,
+     * 每个点每一帧只绘制一次
      *
-     * @param canvas   绘制使用的画布
-     * @param position 绘制的位置
+     * @param canvas         绘制的画布
+     * @param drawStaticDots 是否绘制正常状态的指示器, 使用缓存的图层时不需要绘制
      */
-    private void setIndicatorScrollAnimator(Canvas canvas, int position) {
-        int alpha = (int) (mTranslationFactor * 255);
-        if (position == mCurrentPagePosition) {
-            mSelectedPaint.setAlpha(255 - alpha);
-            mNormalPaint.setAlpha(alpha);
-            canvas.drawPath(mArcPath, mNormalPaint);
-            canvas.drawPath(mArcPath, mSelectedPaint);
-        } else if (position == mTargetPagePosition) {
-            mTargetPaint.setAlpha(alpha);
-            mNormalPaint.setAlpha(255 - alpha);
-            canvas.drawPath(mArcPath, mNormalPaint);
-            canvas.drawPath(mArcPath, mTargetPaint);
-        } else {
-            mNormalPaint.setAlpha(255);
-            canvas.drawPath(mArcPath, mNormalPaint);
-        }
-    }
-
-    private void drawSplitIndicator(Canvas canvas) {
-        float centerX, centerY = mHeight / 2, endX, endY, centerXOffset = mSelectedRadius;
-        float selectedSplitEndX = 0, selectedSplitEndY = 0;
+    private void drawSplitIndicator(Canvas canvas, boolean drawStaticDots) {
+        float centerY = mHeight / 2f, centerXOffset = mSelectedRadius;
+        mNormalPaint.setAlpha(255);
 
         // 控制分裂圆形半径的系数
         float splitRadiusFactor;
-
         if (mTranslationFactor * mPointInterval <= 2 * mNormalRadius) {
             splitRadiusFactor = mTranslationFactor * mPointInterval / (mNormalRadius * 2);
             splitRadiusFactor = (float) Math.log(1 + (Math.E - 1) * splitRadiusFactor);
@@ -364,110 +475,93 @@ public class IndicatorView extends View implements ViewPager.OnPageChangeListene
             splitRadiusFactor = 1;
         }
 
+        // 以下的值在一帧中是不变的, 只计算一次
         // 动态调整分裂圆形的半径
-        float selectedSplitRadius = mNormalRadius + (1 - splitRadiusFactor) * (mSelectedRadius - mNormalRadius);
+        float splitRadius = mNormalRadius + (1 - splitRadiusFactor) * (mSelectedRadius - mNormalRadius);
         // 分裂圆形的滑动偏移量
-        float selectedSplitPointCenterXOffset = mCurrentPagePosition < mTargetPagePosition ? mTranslationFactor * (mPointInterval) : -mTranslationFactor * (mPointInterval);
+        float splitCenterXOffset = mCurrentPagePosition < mTargetPagePosition ?
+                mTranslationFactor * mPointInterval : -mTranslationFactor * mPointInterval;
+        boolean isScrolling = mCurrentPagePosition != mTargetPagePosition;
+        boolean isScrollToRight = mCurrentPagePosition < mTargetPagePosition;
+        float splitOffset = isScrolling ? getSplitOffset() : 0;
+        float targetBondingOffset = isScrolling ? getTargetBondingOffset() : 0;
+        float rightBondingOffset = getCurrentBondingOffset(splitCenterXOffset + splitRadius);
+        float leftBondingOffset = getCurrentBondingOffset(splitRadius - splitCenterXOffset);
 
         for (int i = 0; i < mTotalCount; i++) {
-            centerX = i * mPointInterval + centerXOffset;
-            mArcPath.reset();
-            mArcPath.moveTo(centerX + mNormalRadius, centerY);
-            mSplitArcPath.reset();
-
-            if (i == mCurrentPagePosition) {
-                float splitOffset = getSplitOffset();
-                if (mCurrentPagePosition == mTargetPagePosition) {
-                    mSplitArcPath.moveTo(centerX + selectedSplitPointCenterXOffset + selectedSplitRadius, centerY);
-                } else if (mCurrentPagePosition > mTargetPagePosition) {
-                    mSplitArcPath.moveTo(centerX + selectedSplitPointCenterXOffset + selectedSplitRadius + splitOffset, centerY);
-                } else {
-                    float currentX = centerX + selectedSplitPointCenterXOffset + selectedSplitRadius;
-                    // 根据粘合偏移量控制分裂圆形的起点(初始滑动分裂阶段为零，后半段粘合时有效)
-                    mSplitArcPath.moveTo(currentX + getCurrentBondingOffset(currentX - centerX), centerY);
-                    // 根据滑动分裂偏移量调整当前圆形的起点
-                    mArcPath.moveTo(centerX + mNormalRadius + splitOffset, centerY);
-                }
+            float centerX = i * mPointInterval + centerXOffset;
+            boolean isCurrent = i == mCurrentPagePosition;
+            boolean isTarget = i == mTargetPagePosition && isScrolling;
+            if (!isCurrent && !isTarget) {
+                if (drawStaticDots) canvas.drawCircle(centerX, centerY, mNormalRadius, mNormalPaint);
+                continue;
             }
 
-            if (i == mTargetPagePosition && mCurrentPagePosition > mTargetPagePosition) {
-                mArcPath.moveTo(centerX + mNormalRadius + getTargetBondingOffset(), centerY);
+            // 当前点或目标点被分裂圆形拉伸的左右偏移量
+            float leftStretch = 0, rightStretch = 0;
+            if (isCurrent && isScrolling) {
+                if (isScrollToRight) rightStretch = splitOffset;
+                else leftStretch = splitOffset;
+            } else if (isTarget) {
+                if (isScrollToRight) leftStretch = targetBondingOffset;
+                else rightStretch = targetBondingOffset;
             }
+            buildArcPath(mArcPath, centerX, centerY, mNormalRadius, 1, leftStretch, rightStretch);
+            canvas.drawPath(mArcPath, mNormalPaint);
 
-            for (int k = 0; k < mControlPoints.size() / 2; k++) {
-                if (k == 0) {
-                    endX = centerX;
-                    endY = centerY + mNormalRadius;
-                    if (i == mCurrentPagePosition) {
-                        selectedSplitEndX = centerX + selectedSplitPointCenterXOffset;
-                        selectedSplitEndY = centerY + selectedSplitRadius;
-                    }
-                } else if (k == 1) {
-                    endX = centerX - mNormalRadius;
-                    endY = centerY;
-                    if (i == mCurrentPagePosition) {
-                        selectedSplitEndX = centerX + selectedSplitPointCenterXOffset - selectedSplitRadius;
-                        selectedSplitEndY = centerY;
-                        if (mCurrentPagePosition != mTargetPagePosition) {
-                            float offset = getSplitOffset();
-                            if (mCurrentPagePosition > mTargetPagePosition) {
-                                endX -= offset;
-                                selectedSplitEndX -= getCurrentBondingOffset(centerX - selectedSplitEndX);
-                            } else {
-                                selectedSplitEndX -= offset;
-                            }
-                        }
-                    }
-                    if (i == mTargetPagePosition && mCurrentPagePosition < mTargetPagePosition) {
-                        endX -= getTargetBondingOffset();
-                    }
-                } else if (k == 2) {
-                    endX = centerX;
-                    endY = centerY - mNormalRadius;
-                    if (i == mCurrentPagePosition) {
-                        selectedSplitEndX = centerX + selectedSplitPointCenterXOffset;
-                        selectedSplitEndY = centerY - selectedSplitRadius;
-                    }
-                } else {
-                    endX = centerX + mNormalRadius;
-                    endY = centerY;
-                    if (i == mCurrentPagePosition) {
-                        selectedSplitEndX = centerX + selectedSplitPointCenterXOffset + selectedSplitRadius;
-                        selectedSplitEndY = centerY;
-                        if (mCurrentPagePosition != mTargetPagePosition) {
-                            float offset = getSplitOffset();
-                            if (mCurrentPagePosition < mTargetPagePosition) {
-                                endX += offset;
-                                selectedSplitEndX += getCurrentBondingOffset(selectedSplitEndX - centerX);
-                            } else {
-                                selectedSplitEndX += offset;
-                            }
-                        }
-                    }
-                    if (i == mTargetPagePosition && mCurrentPagePosition > mTargetPagePosition) {
-                        endX += getTargetBondingOffset();
+            if (isCurrent) {
+                // 分裂圆形, 根据粘合偏移量控制分裂圆形的左右边界(初始滑动分裂阶段为零，后半段粘合时有效)
+                float splitLeftStretch = 0, splitRightStretch = 0;
+                if (isScrolling) {
+                    if (isScrollToRight) {
+                        splitLeftStretch = splitOffset;
+                        splitRightStretch = rightBondingOffset;
+                    } else {
+                        splitLeftStretch = leftBondingOffset;
+                        splitRightStretch = splitOffset;
                     }
                 }
-                float controlPointX1 = centerX + mControlPoints.get(k * 2).x;
-                float controlPointY1 = centerY + mControlPoints.get(k * 2).y;
-                float controlPointX2 = centerX + mControlPoints.get(k * 2 + 1).x;
-                float controlPointY2 = centerY + mControlPoints.get(k * 2 + 1).y;
-                mArcPath.cubicTo(controlPointX1, controlPointY1, controlPointX2, controlPointY2, endX, endY);
-                canvas.drawPath(mArcPath, mNormalPaint);
-
-                if (i == mCurrentPagePosition) {
-                    float stretchFactor = selectedSplitRadius / mNormalRadius;
-                    controlPointX1 = centerX + selectedSplitPointCenterXOffset + mControlPoints.get(k * 2).x * stretchFactor;
-                    controlPointY1 = centerY + mControlPoints.get(k * 2).y * stretchFactor;
-                    controlPointX2 = centerX + selectedSplitPointCenterXOffset + mControlPoints.get(k * 2 + 1).x * stretchFactor;
-                    controlPointY2 = centerY + mControlPoints.get(k * 2 + 1).y * stretchFactor;
-                    mSplitArcPath.cubicTo(controlPointX1, controlPointY1, controlPointX2, controlPointY2, selectedSplitEndX, selectedSplitEndY);
-                    canvas.drawPath(mSplitArcPath, mNormalPaint);
-                }
+                buildArcPath(mSplitArcPath, centerX + splitCenterXOffset, centerY, splitRadius,
+                        splitRadius / mNormalRadius, splitLeftStretch, splitRightStretch);
+                canvas.drawPath(mSplitArcPath, mNormalPaint);
             }
         }
     }
 
+    /**
+     * 通过四段三阶贝塞尔曲线构建一个可以左右拉伸的圆形
+     *
+     * @param path          构建的路径
+     * @param centerX       中心点X
+     * @param centerY       中心点Y
+     * @param radius        圆形的半径
+     * @param stretchFactor 控制点相对于正常圆形的缩放系数
+     * @param leftStretch   左边的拉伸偏移量
+     * @param rightStretch  右边的拉伸偏移量
+     */
+    private void buildArcPath(Path path, float centerX, float centerY, float radius,
+                              float stretchFactor, float leftStretch, float rightStretch) {
+        float[] points = mControlPoints;
+        path.reset();
+        path.moveTo(centerX + radius + rightStretch, centerY);
+        // 相对于圆心，第一象限
+        path.cubicTo(centerX + points[0] * stretchFactor, centerY + points[1] * stretchFactor,
+                centerX + points[2] * stretchFactor, centerY + points[3] * stretchFactor,
+                centerX, centerY + radius);
+        // 相对于圆心，第二象限
+        path.cubicTo(centerX + points[4] * stretchFactor, centerY + points[5] * stretchFactor,
+                centerX + points[6] * stretchFactor, centerY + points[7] * stretchFactor,
+                centerX - radius - leftStretch, centerY);
+        // 相对于圆心，第三象限
+        path.cubicTo(centerX + points[8] * stretchFactor, centerY + points[9] * stretchFactor,
+                centerX + points[10] * stretchFactor, centerY + points[11] * stretchFactor,
+                centerX, centerY - radius);
+        // 相对于圆心，第四象限
+        path.cubicTo(centerX + points[12] * stretchFactor, centerY + points[13] * stretchFactor,
+                centerX + points[14] * stretchFactor, centerY + points[15] * stretchFactor,
+                centerX + radius + rightStretch, centerY);
+    }
+
     private float getSplitOffset() {
         float participantX = mTranslationFactor * mPointInterval;
         if (participantX > SPLIT_RADIUS_FACTOR * mNormalRadius * 2) {
@@ -506,6 +600,23 @@ public class IndicatorView extends View implements ViewPager.OnPageChangeListene
         return paint;
     }
 
+    /**
+     * 按照比例混合两个颜色
+     *
+     * @param from  起始颜色
+     * @param to    结束颜色
+     * @param ratio 混合的比例, 0为起始颜色, 1为结束颜色
+     * @return 混合后的颜色
+     */
+    private static int blendColor(int from, int to, float ratio) {
+        float inverse = 1 - ratio;
+        int a = (int) (Color.alpha(from) * inverse + Color.alpha(to) * ratio);
+        int r = (int) (Color.red(from) * inverse + Color.red(to) * ratio);
+        int g = (int) (Color.green(from) * inverse + Color.green(to) * ratio);
+        int b = (int) (Color.blue(from) * inverse + Color.blue(to) * ratio);
+        return Color.argb(a, r, g, b);
+    }
+
     private static int dp2px(float value) {
         return (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value,
                 Resources.getSystem().getDisplayMetrics());
@@ -5,32 +5,40 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Rect;
+import android.os.Build;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.util.TypedValue;
+import android.view.Display;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.ImageView;
 import android.widget.RelativeLayout;
 
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LifecycleOwner;
 import androidx.viewpager.widget.ViewPager;
 
-import com.dzenm.banner2.impl.IView;
 import com.dzenm.banner2.impl.ImageLoader;
+import com.dzenm.banner2.impl.ImagePrefetcher;
 import com.dzenm.banner2.impl.OnItemClickListener;
+import com.dzenm.banner2.impl.OnMetricsListener;
 import com.dzenm.banner2.impl.OnPageSelectedListener;
 import com.dzenm.banner2.impl.PageTransformer;
+import com.dzenm.banner2.impl.RecyclableIView;
+import com.dzenm.banner2.impl.RequestImageLoader;
 import com.dzenm.banner2.impl.TransformerStyle;
 
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * @author dzenm
  * @date 2019-08-09 21:28
  */
-public class PagerLayout extends RelativeLayout implements IView, View.OnClickListener {
+public class PagerLayout extends RelativeLayout implements RecyclableIView, View.OnClickListener,
+        ViewTreeObserver.OnScrollChangedListener {
 
     private static final String TAG = PagerLayout.class.getSimpleName();
 
@@ -40,7 +48,7 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
 
     private ViewPagerAdapter mAdapter;
 
-    private ImageLoader mImageLoader;
+    private ImageBinder mImageBinder;
 
     /**
      * Item view数据, 可以使用url, bitmap, drawable, resource作为图片显示
@@ -53,6 +61,12 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
      */
     private int mItemViewMargin;
 
+    /**
+     * 页面窗口大小, 大于0时只保留当前页及左右各mPageWindow个页面, 为0时一次性创建所有页面
+     * {@link #setPageWindow(int)}
+     */
+    private int mPageWindow;
+
     /**
      * 切换的效果类型, 当切换类型为STYLE_COVER时, 使用gallery方式会无效果， 不建议混合使用
      * 设置的类型详见 {@link TransformerStyle}
@@ -61,9 +75,90 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
     int mTransformerStyle = TransformerStyle.STYLE_NONE;
 
     /**
-     * 定时器, 定时切换页面
+     * 自动播放, 根据可见性和生命周期自动暂停和恢复 {@link AutoPlayController}
+     */
+    private AutoPlayController mAutoPlay = new AutoPlayController(new Runnable() {
+        @Override
+        public void run() {
+            onAutoPlay();
+        }
+    });
+
+    /**
+     * 自动播放时等待下一页图片显示的最长时间(毫秒), 为0时不等待 {@link #setPlayWhenReady(long)}
+     */
+    private long mMaxReadyWait;
+
+    /**
+     * 自动播放是否在等待下一页的图片显示
+     */
+    private boolean isWaitingReady;
+
+    /**
+     * 等待超时之后直接切换到下一页
      */
-    private Timer mTimer;
+    private Runnable mReadyTimeout = new Runnable() {
+        @Override
+        public void run() {
+            playAfterWait();
+        }
+    };
+
+    /**
+     * 自动播放正在等待的下一页的图片显示之后切换到下一页
+     */
+    private ImageBinder.OnImageReadyListener mImageReadyListener = new ImageBinder.OnImageReadyListener() {
+        @Override
+        public void onImageReady(View view, long loadTime) {
+            if (mMetricsRecorder != null) mMetricsRecorder.onImageShown(loadTime);
+            if (isWaitingReady && view == mAdapter.getItemView(mViewPager.getCurrentItem() + 1)) playAfterWait();
+        }
+    };
+
+    /**
+     * 手指是否按在banner上, 按下时暂停自动播放
+     */
+    private boolean isTouchDown;
+
+    /**
+     * ViewPager的滑动状态, 手指抬起并且页面静止之后才恢复自动播放
+     */
+    private int mScrollState = ViewPager.SCROLL_STATE_IDLE;
+
+    /**
+     * 手指滑动时暂停自动播放, 滑动停止之后从头开始计时, 不会在手动滑动之后马上自动切换
+     */
+    private ViewPager.OnPageChangeListener mAutoPlayListener = new ViewPager.SimpleOnPageChangeListener() {
+        @Override
+        public void onPageScrollStateChanged(int state) {
+            mScrollState = state;
+            if (mMetricsRecorder != null) mMetricsRecorder.onPageScrollStateChanged(state);
+            if (state == ViewPager.SCROLL_STATE_DRAGGING) {
+                cancelWaitReady();
+                mAutoPlay.setTouching(true);
+            } else if (state == ViewPager.SCROLL_STATE_IDLE && !isTouchDown) {
+                mAutoPlay.setTouching(false);
+            }
+        }
+    };
+
+    /**
+     * 页面静止时预加载前后的图片, 已经添加到ViewPager中的页面不需要预加载
+     */
+    private ViewPager.OnPageChangeListener mPrefetchListener = new ViewPager.SimpleOnPageChangeListener() {
+        @Override
+        public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
+            if (positionOffset != 0 || mPrefetchCount <= 0) return;
+            // 自动播放只会向后滑动, 只预加载后面的图片
+            mImageBinder.prefetch(getContext(), mData, mAdapter.getCurrentRealPosition(),
+                    mViewPager.getOffscreenPageLimit(), mPrefetchCount, mAdapter.getLoop(), mAutoPlay.isPlaying());
+        }
+    };
+
+    /**
+     * 计算banner在屏幕中的可见区域
+     */
+    private Rect mVisibleRect = new Rect();
 
     /**
      * 是否循环显示页面 {@link #loop()}
@@ -80,6 +175,16 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
      */
     private PageTransformer mPageTransformer;
 
+    /**
+     * 页面静止时每一边预加载的图片数量 {@link #setPrefetchCount(int)}
+     */
+    private int mPrefetchCount;
+
+    /**
+     * 滑动时是否将页面提升为硬件层 {@link #setHardwareLayer(boolean)}
+     */
+    private boolean isHardwareLayer;
+
     /**
      * Item点击事件 {@link #setOnItemClickListener(OnItemClickListener)}
      */
@@ -87,6 +192,11 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
 
     private OnPageSelectedListener mOnPageSelectedListener;
 
+    /**
+     * 统计性能指标, 未设置监听时为null {@link #setOnMetricsListener(OnMetricsListener, long)}
+     */
+    private MetricsRecorder mMetricsRecorder;
+
     public PagerLayout(Context context) {
         this(context, null);
     }
@@ -103,6 +213,9 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
         isLoop = t.getBoolean(R.styleable.PagerLayout_loop, false);
         isGallery = t.getBoolean(R.styleable.PagerLayout_gallery, false);
         mItemViewMargin = (int) t.getDimension(R.styleable.PagerLayout_itemViewMargin, dp2px(8));
+        mPageWindow = t.getInt(R.styleable.PagerLayout_pageWindow, 0);
+        isHardwareLayer = t.getBoolean(R.styleable.PagerLayout_hardwareLayer, true);
+        mPrefetchCount = t.getInt(R.styleable.PagerLayout_prefetchCount, 1);
 
         t.recycle();
         initializeViewPager(context);
@@ -124,7 +237,8 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
     }
 
     public PagerLayout into(ImageLoader imageLoader) {
-        mImageLoader = imageLoader;
+        mImageBinder = new ImageBinder(imageLoader);
+        mImageBinder.setOnImageReadyListener(mImageReadyListener);
         return this;
     }
 
@@ -143,6 +257,43 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
         return this;
     }
 
+    /**
+     * 设置页面窗口大小, 只创建当前页及左右各pageWindow个页面, 滑出窗口的页面会被释放,
+     * 适用于页面较多的轮播图, 为0时一次性创建所有页面
+     */
+    public PagerLayout setPageWindow(int pageWindow) {
+        mPageWindow = Math.max(pageWindow, 0);
+        return this;
+    }
+
+    /**
+     * 设置滑动时是否将页面提升为硬件层, 默认开启. 页面内容每一帧都会变化(例如播放动画)时,
+     * 硬件层需要不断重建, 此时应该关闭
+     */
+    public PagerLayout setHardwareLayer(boolean hardwareLayer) {
+        isHardwareLayer = hardwareLayer;
+        return this;
+    }
+
+    /**
+     * 设置页面静止时每一边预加载的图片数量, 只对实现了{@link ImagePrefetcher}的图片加载器有效,
+     * 已经添加到ViewPager中的页面不需要预加载, 默认为1, 为0时不预加载
+     */
+    public PagerLayout setPrefetchCount(int prefetchCount) {
+        mPrefetchCount = Math.max(prefetchCount, 0);
+        return this;
+    }
+
+    /**
+     * 自动播放时等到下一页的图片显示之后再切换, 最多等待maxWait毫秒, 超时之后直接切换, 等待时间应该小于自动播放的周期.
+     * 下一页在切换之前已经添加到ViewPager中并开始加载, 只对实现了{@link RequestImageLoader}的图片加载器有效,
+     * 其它加载器无法知道图片何时显示, 不会等待. 默认为0, 为0时不等待
+     */
+    public PagerLayout setPlayWhenReady(long maxWait) {
+        mMaxReadyWait = Math.max(maxWait, 0);
+        return this;
+    }
+
     public PagerLayout setTransformerStyle(int transformerStyle) {
         mTransformerStyle = transformerStyle;
         return this;
@@ -164,6 +315,21 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
         return this;
     }
 
+    /**
+     * 设置性能指标的监听, 统计手指滑动的次数, 手指抬起到页面静止的时间, 滑动过程中的帧数和卡顿的帧数,
+     * 图片从加载到显示的时间以及自动播放的次数. 数据在主线程中累加, 距离上一次回调超过interval之后,
+     * 在页面静止或者自动播放时回调一次, banner移除或者销毁时回调剩余的数据
+     *
+     * @param listener 性能指标的监听, 为null时停止统计
+     * @param interval 回调的最小间隔(毫秒)
+     */
+    public PagerLayout setOnMetricsListener(OnMetricsListener listener, long interval) {
+        if (mMetricsRecorder != null) mMetricsRecorder.flush();
+        mMetricsRecorder = listener == null ? null : new MetricsRecorder(listener, Math.max(interval, 0));
+        if (mMetricsRecorder != null) updateRefreshRate();
+        return this;
+    }
+
     public ViewPager getViewPager() {
         return mViewPager;
     }
@@ -179,33 +345,30 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
      * 循环播放
      */
     private void setLoopToPlay(int period) {
-        if (mTimer == null) mTimer = new Timer();
-        mTimer.schedule(mTimerTask, period * 1000, period * 1000);
+        if (!mAutoPlay.hasLifecycle() && mActivity instanceof LifecycleOwner) {
+            mAutoPlay.setLifecycleOwner((LifecycleOwner) mActivity);
+        }
+        mAutoPlay.play(period * 1000L);
     }
 
     /**
-     * 定时跳转
+     * 防止内存泄露
      */
-    private TimerTask mTimerTask = new TimerTask() {
-        @Override
-        public void run() {
-            mActivity.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    nextPage();
-                }
-            });
-        }
-    };
+    public void destroy() {
+        mAutoPlay.stop();
+        cancelWaitReady();
+        if (mImageBinder != null) mImageBinder.cancelPrefetch(getContext(), mData);
+        if (mAdapter != null) mAdapter.releaseItemViews();
+        if (mMetricsRecorder != null) mMetricsRecorder.flush();
+    }
 
     /**
-     * 防止内存泄露
+     * 绑定生命周期, 自动播放在onStop时暂停, 在onStart时恢复, 在onDestroy时停止,
+     * 未设置时默认绑定Context的生命周期(Context为LifecycleOwner时)
      */
-    public void destroy() {
-        if (mTimer != null) {
-            mTimer.cancel();
-            mTimer = null;
-        }
+    public PagerLayout setLifecycleOwner(LifecycleOwner owner) {
+        mAutoPlay.setLifecycleOwner(owner);
+        return this;
     }
 
     /**
@@ -224,12 +387,46 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
 
     /************************************* 以下为实现的细节 *********************************/
 
+    /**
+     * 自动播放切换页面, 下一页的图片还没有显示时, 等到图片显示或者超时之后再切换
+     */
+    private void onAutoPlay() {
+        if (mMetricsRecorder != null) mMetricsRecorder.onAutoPlayTick();
+        if (isWaitingReady) return;
+        if (mMaxReadyWait <= 0 || isNextPageReady()) {
+            nextPage();
+        } else {
+            isWaitingReady = true;
+            postDelayed(mReadyTimeout, mMaxReadyWait);
+        }
+    }
+
+    /**
+     * @return 下一页的图片是否已经显示
+     */
+    private boolean isNextPageReady() {
+        View view = mAdapter.getItemView(mViewPager.getCurrentItem() + 1);
+        return view != null && mImageBinder.isReady(view);
+    }
+
+    private void playAfterWait() {
+        cancelWaitReady();
+        // 等待期间暂停或者停止了自动播放时不再切换
+        if (mAutoPlay.isScheduled()) nextPage();
+    }
+
+    private void cancelWaitReady() {
+        if (!isWaitingReady) return;
+        isWaitingReady = false;
+        removeCallbacks(mReadyTimeout);
+    }
+
     /**
      * 该方法会进行一些配置, 包括ViewPager的配置, View的创建, 以及Adapter的设置
      * 进行配置完之后, 最后调用该方法创建一个多页面滑动显示的View
      */
     public PagerLayout build() {
-        mAdapter = new ViewPagerAdapter(mData, mViewPager, this, isLoop);
+        mAdapter = new ViewPagerAdapter(mData, mViewPager, this, isLoop, mPageWindow);
         buildViewPager(mAdapter);
         return this;
     }
@@ -250,8 +447,12 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
             mViewPager.setClipChildren(false);
         }
 
-        mViewPager.setPageTransformer(false,
-                new Transformer(mTransformerStyle, mViewPager, mPageTransformer));
+        Transformer transformer = new Transformer(mTransformerStyle, mViewPager, mPageTransformer);
+        transformer.setHardwareLayerEnabled(isHardwareLayer);
+        mViewPager.setPageTransformer(false, transformer);
+        mViewPager.addOnPageChangeListener(transformer);
+        mViewPager.addOnPageChangeListener(mPrefetchListener);
+        mViewPager.addOnPageChangeListener(mAutoPlayListener);
 
         viewPagerAdapter.setOnPageSelectedListener(mOnPageSelectedListener);
     }
@@ -259,10 +460,27 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
     @Override
     public View createItemView(Object object, int position) {
         ImageView view = (ImageView) getView();
-        mImageLoader.onLoader(view, mData.get(position));
+        mImageBinder.bind(view, object);
         return view;
     }
 
+    @Override
+    public int getItemViewType(int position) {
+        return 0;
+    }
+
+    @Override
+    public void bindItemView(View view, Object object, int position) {
+        mImageBinder.bind((ImageView) view, object);
+    }
+
+    @Override
+    public void recycleItemView(View view) {
+        ImageView imageView = (ImageView) view;
+        mImageBinder.release(imageView);
+        imageView.setImageDrawable(null);   // 回收池中的页面不再持有之前的图片
+    }
+
     protected View getView() {
         ImageView view = new ImageView(mActivity);
         view.setOnClickListener(this);
@@ -281,6 +499,93 @@ public class PagerLayout extends RelativeLayout implements IView, View.OnClickLi
         }
     }
 
+    /************************************* 以下为自动播放的可见性处理 *********************************/
+
+    /**
+     * 手指按下时暂停自动播放, 手指抬起并且页面静止之后恢复
+     */
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        switch (ev.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                isTouchDown = true;
+                cancelWaitReady();
+                mAutoPlay.setTouching(true);
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                isTouchDown = false;
+                if (mScrollState == ViewPager.SCROLL_STATE_IDLE) mAutoPlay.setTouching(false);
+                break;
+        }
+        return super.dispatchTouchEvent(ev);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getViewTreeObserver().addOnScrollChangedListener(this);
+        mAutoPlay.setWindowFocus(hasWindowFocus());
+        mAutoPlay.setAttached(true);
+        if (mMetricsRecorder != null) updateRefreshRate();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        getViewTreeObserver().removeOnScrollChangedListener(this);
+        mAutoPlay.setAttached(false);
+        cancelWaitReady();
+        isTouchDown = false;
+        mAutoPlay.setTouching(false);
+        if (mMetricsRecorder != null) mMetricsRecorder.flush();
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * 根据屏幕的刷新率判断卡顿的帧
+     */
+    private void updateRefreshRate() {
+        Display display = getDisplay();
+        if (display != null) mMetricsRecorder.setRefreshRate(display.getRefreshRate());
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        if (mAutoPlay != null) mAutoPlay.setVisible(isVisible);
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        // API 24以下没有onVisibilityAggregated, 根据自身及父布局的可见性判断
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N && mAutoPlay != null) {
+            mAutoPlay.setVisible(isShown() && getWindowVisibility() == VISIBLE);
+        }
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N && mAutoPlay != null) {
+            mAutoPlay.setVisible(isShown() && visibility == VISIBLE);
+        }
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        mAutoPlay.setWindowFocus(hasWindowFocus);
+    }
+
+    /**
+     * 父布局滚动时判断banner是否已经滚出屏幕
+     */
+    @Override
+    public void onScrollChanged() {
+        mAutoPlay.setOnScreen(getGlobalVisibleRect(mVisibleRect));
+    }
+
     public static int dp2px(int value) {
         return (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value,
                 Resources.getSystem().getDisplayMetrics());
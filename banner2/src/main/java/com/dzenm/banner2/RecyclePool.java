@@ -0,0 +1,64 @@
+package com.dzenm.banner2;
+
+import android.util.SparseArray;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * <pre>
+ * 回收页面的缓存池, 按照item view的类型保存已移除的页面, 用于再次创建页面时复用
+ * </pre>
+ */
+class RecyclePool {
+
+    /**
+     * 每种类型默认最多缓存的页面数量
+     */
+    private static final int DEFAULT_MAX_SCRAP = 3;
+
+    /**
+     * 根据类型缓存的页面
+     */
+    private SparseArray<ArrayList<View>> mScrapViews;
+
+    private int mMaxScrap;
+
+    RecyclePool() {
+        this(DEFAULT_MAX_SCRAP);
+    }
+
+    RecyclePool(int maxScrap) {
+        mMaxScrap = maxScrap;
+        mScrapViews = new SparseArray<>();
+    }
+
+    /**
+     * @param type item view的类型
+     * @return 缓存的页面, 没有缓存时返回null
+     */
+    View get(int type) {
+        ArrayList<View> scrapViews = mScrapViews.get(type);
+        if (scrapViews == null || scrapViews.isEmpty()) return null;
+        return scrapViews.remove(scrapViews.size() - 1);
+    }
+
+    /**
+     * 回收页面, 超过缓存数量时直接丢弃
+     *
+     * @param type item view的类型
+     * @param view 回收的页面
+     */
+    void put(int type, View view) {
+        ArrayList<View> scrapViews = mScrapViews.get(type);
+        if (scrapViews == null) {
+            scrapViews = new ArrayList<>(mMaxScrap);
+            mScrapViews.put(type, scrapViews);
+        }
+        if (scrapViews.size() < mMaxScrap) scrapViews.add(view);
+    }
+
+    void clear() {
+        mScrapViews.clear();
+    }
+}
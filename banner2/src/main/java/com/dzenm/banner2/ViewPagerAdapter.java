@@ -11,9 +11,11 @@ import androidx.annotation.NonNull;
 import androidx.viewpager.widget.PagerAdapter;
 import androidx.viewpager.widget.ViewPager;
 
+import com.dzenm.banner.core.PagerState;
 import com.dzenm.banner2.impl.IView;
 import com.dzenm.banner2.impl.OnPageSelectedListener;
 import com.dzenm.banner2.impl.OnRenderItemViewListener;
+import com.dzenm.banner2.impl.RecyclableIView;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,15 +39,31 @@ public class ViewPagerAdapter extends PagerAdapter implements ViewPager.OnPageCh
      */
     private ArrayList<View> mViews;
 
+    /**
+     * Item view的数据
+     */
+    private List mData;
+
+    /**
+     * 页面窗口大小, 大于0时只创建当前页及左右各mPageWindow个页面, 其余页面在
+     * {@link #destroyItem(ViewGroup, int, Object)} 时释放, 为0时一次性创建所有页面
+     */
+    private int mPageWindow;
+
+    /**
+     * 窗口外移除的页面, 按照类型回收复用
+     */
+    private RecyclePool mRecyclePool;
+
     /**
      * 是否循环显示
      */
     private boolean isLoop;
 
     /**
-     * View的实际数量
+     * 页面位置和实际位置的状态, 循环时使用数量很大的虚拟页面, 页面位置对实际数量取余即为实际位置 {@link PagerState}
      */
-    private int mRealTotalCount = -1;
+    private PagerState mPagerState;
 
     /**
      * 自定义创建view的接口 {@link IView}
@@ -56,40 +74,56 @@ public class ViewPagerAdapter extends PagerAdapter implements ViewPager.OnPageCh
 
     private OnPageSelectedListener mOnPageSelectedListener;
 
-    /**
-     * 当前显示的实际页面
-     */
-    protected int mCurrentRealPosition = 0;
-
     public ViewPagerAdapter(@NonNull List data, ViewPager viewPager, IView iView, boolean loop) {
+        this(data, viewPager, iView, loop, 0);
+    }
+
+    public ViewPagerAdapter(@NonNull List data, ViewPager viewPager, IView iView, boolean loop,
+                            int pageWindow) {
         mViewPager = viewPager;
         mIView = iView;
         isLoop = loop;
+        mData = data;
+        mPageWindow = pageWindow;
 
         mViews = new ArrayList<>();
         mViewCache = new SparseArray<>();
-        if (mRealTotalCount == -1) mRealTotalCount = data.size();
-        Log.d(TAG, "real total count is " + mRealTotalCount);
+        mRecyclePool = new RecyclePool();
+        Log.d(TAG, "real total count is " + data.size());
         initialize(data);
     }
 
     @SuppressLint("ClickableViewAccessibility")
     private void initialize(@NonNull List data) {
-        if (isLoop && data.size() > 1) {
-            data.add(0, data.get(data.size() - 1));     // 添加最后一页到第一页
-            data.add(data.get(1));      // 添加第一页(经过上行的添加已经是第二页了)到最后一页
+        isLoop = isLoop && data.size() > 1;
+        if (isLoop) {
+            // 循环时使用数量很大的虚拟页面, 不修改数据, 也不在首尾添加重复的页面, 页面通过回收池复用
+            mPagerState = PagerState.virtual(data.size());
+            if (mPageWindow <= 0) mPageWindow = 1;
+        } else {
+            mPagerState = PagerState.linear(data.size());
         }
 
-        int position = 0;
-        for (Object object : data) {
-            mViews.add(mIView.createItemView(object, position));
-            position++;
+        if (!isVirtualized()) {
+            int position = 0;
+            for (Object object : data) {
+                mViews.add(mIView.createItemView(object, position));
+                position++;
+            }
         }
         Log.d(TAG, "data size is " + data.size());
         mViewPager.setAdapter(this);
         mViewPager.addOnPageChangeListener(this);
-        mViewPager.setOffscreenPageLimit(data.size());
-        mViewPager.setCurrentItem(isLoop ? 1 : 0, false);
+        mViewPager.setOffscreenPageLimit(isVirtualized() ? mPageWindow : data.size());
+        mViewPager.setCurrentItem(mPagerState.getCurrentPagerPosition(), false);
+    }
+
+    /**
+     * @param position ViewPager的页面位置
+     * @return 页面对应的数据的实际位置
+     */
+    public int getRealPosition(int position) {
+        return mPagerState.getRealPosition(position);
     }
 
     public void setOnRenderItemViewListener(OnRenderItemViewListener onRenderItemViewListener) {
@@ -105,32 +139,48 @@ public class ViewPagerAdapter extends PagerAdapter implements ViewPager.OnPageCh
     }
 
     public int getRealTotalCount() {
-        return mRealTotalCount;
+        return mPagerState.getRealCount();
     }
 
     public int getCurrentRealPosition() {
-        return mCurrentRealPosition;
+        return mPagerState.getCurrentPosition();
     }
 
     public void setCurrentRealPosition(int currentRealPosition) {
-        mCurrentRealPosition = currentRealPosition;
+        mPagerState.setCurrentPosition(currentRealPosition);
+    }
+
+    /**
+     * @param position ViewPager的页面位置
+     * @return 页面位置对应的item view, 还没有创建时返回null
+     */
+    public View getItemView(int position) {
+        return mViewCache.get(position);
     }
 
     public void nextPage(boolean smoothScroll) {
-        mViewPager.setCurrentItem(mCurrentRealPosition++, smoothScroll);
+        mViewPager.setCurrentItem(mViewPager.getCurrentItem() + 1, smoothScroll);
     }
 
     public void lastPage(boolean smoothScroll) {
-        mViewPager.setCurrentItem(mCurrentRealPosition--, smoothScroll);
+        mViewPager.setCurrentItem(mViewPager.getCurrentItem() - 1, smoothScroll);
     }
 
     public boolean getLoop() {
         return isLoop;
     }
 
+    /**
+     * @return 是否只创建窗口内的页面
+     */
+    private boolean isVirtualized() {
+        return mPageWindow > 0;
+    }
+
     @Override
     public int getCount() {
-        return mViews.size();
+        if (isLoop) return mPagerState.getCount();
+        return isVirtualized() ? mData.size() : mViews.size();
     }
 
     @Override
@@ -143,11 +193,11 @@ public class ViewPagerAdapter extends PagerAdapter implements ViewPager.OnPageCh
     public Object instantiateItem(@NonNull ViewGroup container, int position) {
         View view = mViewCache.get(position);
         if (view == null) {
-            view = mViews.get(position);
+            view = isVirtualized() ? obtainItemView(position) : mViews.get(position);
             mViewCache.put(position, view);
         }
         if (mOnRenderItemViewListener != null) {
-            mOnRenderItemViewListener.onRenderItemView(view, position);
+            mOnRenderItemViewListener.onRenderItemView(view, getRealPosition(position));
         }
         container.addView(view);
         return view;
@@ -155,7 +205,64 @@ public class ViewPagerAdapter extends PagerAdapter implements ViewPager.OnPageCh
 
     @Override
     public void destroyItem(ViewGroup container, int position, @NonNull Object object) {
-        container.removeView(mViews.get(position));
+        if (isVirtualized()) {
+            // 窗口外的页面放入回收池, 下次进入窗口时复用
+            View view = (View) object;
+            container.removeView(view);
+            mViewCache.remove(position);
+            recycleItemView(view, getRealPosition(position));
+        } else {
+            container.removeView(mViews.get(position));
+        }
+    }
+
+    /**
+     * 清除页面动画留下的状态和页面显示的内容之后放入回收池, 只实现{@link IView}时不复用页面
+     *
+     * @param view         移除的页面
+     * @param realPosition 页面的实际位置
+     */
+    private void recycleItemView(View view, int realPosition) {
+        if (!(mIView instanceof RecyclableIView)) return;
+        RecyclableIView iView = (RecyclableIView) mIView;
+        Transformer.reset(view);
+        iView.recycleItemView(view);
+        mRecyclePool.put(iView.getItemViewType(realPosition), view);
+    }
+
+    /**
+     * banner销毁时回收所有创建的页面, 释放页面显示的内容, 只实现{@link IView}时不会回调
+     */
+    public void releaseItemViews() {
+        if (!(mIView instanceof RecyclableIView)) return;
+        RecyclableIView iView = (RecyclableIView) mIView;
+        if (isVirtualized()) {
+            for (int i = 0; i < mViewCache.size(); i++) iView.recycleItemView(mViewCache.valueAt(i));
+        } else {
+            for (View view : mViews) iView.recycleItemView(view);
+        }
+        // 回收池中的页面放入时已经释放
+        mRecyclePool.clear();
+    }
+
+    /**
+     * 优先从回收池中取出相同类型的页面重新绑定数据, 回收池为空时创建新的页面
+     *
+     * @param position 页面的位置
+     * @return 页面的item view
+     */
+    private View obtainItemView(int position) {
+        int realPosition = getRealPosition(position);
+        Object object = mData.get(realPosition);
+        if (mIView instanceof RecyclableIView) {
+            RecyclableIView iView = (RecyclableIView) mIView;
+            View view = mRecyclePool.get(iView.getItemViewType(realPosition));
+            if (view != null) {
+                iView.bindItemView(view, object, realPosition);
+                return view;
+            }
+        }
+        return mIView.createItemView(object, realPosition);
     }
 
     /**
@@ -170,8 +277,10 @@ public class ViewPagerAdapter extends PagerAdapter implements ViewPager.OnPageCh
 
     @Override
     public void onPageSelected(int position) {
-        if (mOnPageSelectedListener != null) mOnPageSelectedListener.onPageSelected(position);
-        mCurrentRealPosition = position;
+        mPagerState.select(position);
+        if (mOnPageSelectedListener != null) {
+            mOnPageSelectedListener.onPageSelected(mPagerState.getCurrentPosition());
+        }
     }
 
     /**
@@ -191,16 +300,12 @@ public class ViewPagerAdapter extends PagerAdapter implements ViewPager.OnPageCh
     }
 
     /**
-     * 重新调整页面
+     * 虚拟页面的数量足够连续滑动很长时间, 只有在滑动到虚拟页面的边缘时, 才会在静止时跳回中间位置
      */
     private void adjustCurrentRealPosition() {
-        Log.d(TAG, "current position is " + mCurrentRealPosition);
-        if (mCurrentRealPosition == 0) {
-            // 若当前为第一张，设置页面为倒数第二张
-            mViewPager.setCurrentItem(mViews.size() - 2, false);
-        } else if (mCurrentRealPosition == mViews.size() - 1) {
-            // 若当前为倒数第一张，设置页面为第二张
-            mViewPager.setCurrentItem(1, false);
-        }
+        int position = mPagerState.getRecenterPosition();
+        if (position < 0) return;
+        Log.d(TAG, "reach the edge of virtual pages, current position is " + mPagerState.getCurrentPagerPosition());
+        mViewPager.setCurrentItem(position, false);
     }
 }
@@ -0,0 +1,32 @@
+package com.dzenm.banner2.impl;
+
+import android.content.Context;
+
+/**
+ * <pre>
+ * 图片加载器可以同时实现该接口, 页面静止时会预加载前后即将显示的图片,
+ * 预加载的图片不再需要时会取消. 自动播放时只预加载后面的图片
+ * </pre>
+ */
+public interface ImagePrefetcher {
+
+    /**
+     * 预加载图片, 例如使用Glide的preload
+     *
+     * @param context       Context
+     * @param imageResource 图片加载的资源
+     * @param position      图片在数据中的位置
+     * @param width         图片显示的宽度, 页面还没有布局时为0
+     * @param height        图片显示的高度, 页面还没有布局时为0
+     */
+    void onPrefetch(Context context, Object imageResource, int position, int width, int height);
+
+    /**
+     * 取消不再需要的预加载
+     *
+     * @param context       Context
+     * @param imageResource 图片加载的资源
+     * @param position      图片在数据中的位置
+     */
+    void onCancelPrefetch(Context context, Object imageResource, int position);
+}
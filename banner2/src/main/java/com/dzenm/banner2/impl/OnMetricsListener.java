@@ -0,0 +1,13 @@
+package com.dzenm.banner2.impl;
+
+import com.dzenm.banner2.BannerMetrics;
+
+public interface OnMetricsListener {
+
+    /**
+     * 一段时间内的性能指标, 在主线程中回调
+     *
+     * @param metrics 每次回调都是同一个对象, 回调结束之后会被清零, 不能在回调之外保存和读取
+     */
+    void onMetrics(BannerMetrics metrics);
+}
@@ -0,0 +1,35 @@
+package com.dzenm.banner2.impl;
+
+import android.view.View;
+
+/**
+ * <pre>
+ * 可以复用页面的{@link IView}. 开启页面窗口时, 窗口外移除的页面按照类型放入回收池,
+ * 再次创建相同类型的页面时通过{@link #bindItemView(View, Object, int)}重新绑定资源.
+ * 只实现{@link IView}时不会复用页面, 每次都通过{@link #createItemView(Object, int)}创建
+ * </pre>
+ */
+public interface RecyclableIView extends IView {
+
+    /**
+     * @param position item的位置
+     * @return item view的类型, 相同类型的页面可以相互复用
+     */
+    int getItemViewType(int position);
+
+    /**
+     * 复用页面时, 重新绑定页面的资源
+     *
+     * @param view     复用的item view
+     * @param object   view加载的资源
+     * @param position 绑定的位置
+     */
+    void bindItemView(View view, Object object, int position);
+
+    /**
+     * 页面放入回收池之前调用, 清除页面显示的内容, 回收池已满时页面会被直接丢弃
+     *
+     * @param view 回收的item view
+     */
+    void recycleItemView(View view);
+}
@@ -0,0 +1,20 @@
+package com.dzenm.banner2.impl;
+
+import android.widget.ImageView;
+
+/**
+ * <pre>
+ * 需要知道页面大小的图片加载器, 页面布局完成之后才会加载图片, 可以按页面的大小解码图片,
+ * 不需要先解码原图再缩放显示. 使用该接口时不会再调用{@link #onLoader(ImageView, Object)}, 可以空实现
+ * </pre>
+ */
+public interface SizedImageLoader extends ImageLoader {
+
+    /**
+     * @param view          图片加载的View
+     * @param imageResource 图片加载的资源
+     * @param width         图片显示的宽度, 不包括View的padding
+     * @param height        图片显示的高度, 不包括View的padding
+     */
+    void onLoader(ImageView view, Object imageResource, int width, int height);
+}
@@ -0,0 +1,100 @@
+package com.dzenm.banner2;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.viewpager.widget.ViewPager;
+
+import com.dzenm.banner.perf.ScrollBaseline;
+import com.dzenm.banner.perf.ScrollHarness;
+import com.dzenm.banner2.impl.ImageLoader;
+import com.dzenm.banner2.impl.PageTransformer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * 滑动, 快速滑动和自动播放时的性能指标, 超出{@link ScrollBaseline}中的基准值时失败
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PagerLayoutScrollPerfTest {
+
+    /**
+     * 自动播放的周期(秒)
+     */
+    private static final int PERIOD = 1;
+
+    private ScrollHarness mHarness;
+    private PagerLayout mPagerLayout;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().windowFocusChanged(true).get();
+        mHarness = new ScrollHarness(activity);
+        mPagerLayout = new PagerLayout(activity);
+        mPagerLayout.load(Arrays.asList(1, 2, 3, 4, 5))
+                .into(new ImageLoader() {
+                    @Override
+                    public void onLoader(ImageView view, Object imageResource) {
+                        mHarness.onLoad();
+                        view.setImageDrawable(mHarness.getDrawable());
+                    }
+                })
+                .loop()
+                .setTransformer(new PageTransformer() {
+                    @Override
+                    public void transformPage(@NonNull View page, @NonNull ViewPager viewPager, float position) {
+                        mHarness.onTransformPage();
+                    }
+                })
+                .build();
+        mHarness.attach(mPagerLayout, mPagerLayout.getViewPager());
+    }
+
+    @Test
+    public void swipe() {
+        ScrollBaseline.check("banner2.swipe", mHarness.measure(new Runnable() {
+            @Override
+            public void run() {
+                mHarness.swipe();
+            }
+        }));
+    }
+
+    @Test
+    public void fling() {
+        ScrollBaseline.check("banner2.fling", mHarness.measure(new Runnable() {
+            @Override
+            public void run() {
+                mHarness.fling();
+            }
+        }));
+    }
+
+    /**
+     * 经过自动播放的调度器和等待下一页图片显示的判断切换页面
+     */
+    @Test
+    public void autoPlayTick() {
+        mPagerLayout.setPlayWhenReady(PERIOD * 500L);
+        mPagerLayout.play(PERIOD);
+        ScrollBaseline.check("banner2.autoPlayTick", mHarness.measure(new Runnable() {
+            @Override
+            public void run() {
+                mHarness.awaitAutoPlay(PERIOD * 1000L);
+            }
+        }));
+        mPagerLayout.destroy();
+    }
+}
@@ -0,0 +1,116 @@
+package com.dzenm.banner.perf;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static org.junit.Assert.fail;
+
+/**
+ * <pre>
+ * 滑动场景指标的基准值, 从classpath中的scroll-baseline.properties读取, 每个模块有自己的文件
+ * (src/test/resources/scroll-baseline.properties), 键为"模块.场景.指标".
+ * 次数类的指标在Robolectric中是确定的, 不能超过基准值, 只有分配的内存允许{@link #ALLOCATION_TOLERANCE}的波动.
+ * 每个指标都必须有基准值, 新增场景或者指标之后需要重新记录, 修改之后指标合理的变化也需要重新记录:
+ * ./gradlew :banner:testDebugUnitTest :banner2:testDebugUnitTest -PupdateBaseline
+ * </pre>
+ */
+public final class ScrollBaseline {
+
+    static final String ALLOCATED_BYTES = "allocatedBytes";
+
+    private static final String RESOURCE = "scroll-baseline.properties";
+
+    /**
+     * 基准值文件的路径, 设置时将测量的数值写入该文件, 不再比较, 由build.gradle根据-PupdateBaseline设置
+     */
+    private static final String UPDATE_PROPERTY = "banner.updateBaseline";
+
+    private static final double ALLOCATION_TOLERANCE = 0.25;
+
+    private ScrollBaseline() {
+    }
+
+    /**
+     * 比较场景的指标和基准值, 超出基准值或者没有基准值时失败
+     *
+     * @param scenario 场景的名称
+     * @param metrics  {@link ScrollHarness#measure(Runnable)}统计的指标
+     */
+    public static void check(String scenario, Map<String, Long> metrics) {
+        String updateFile = System.getProperty(UPDATE_PROPERTY);
+        if (updateFile != null) {
+            update(new File(updateFile), scenario, metrics);
+            return;
+        }
+        Properties baseline = load();
+        List<String> regressions = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : metrics.entrySet()) {
+            String key = scenario + "." + entry.getKey();
+            long value = entry.getValue();
+            String expected = baseline.getProperty(key);
+            if (expected == null) {
+                missing.add(key + "=" + value);
+                continue;
+            }
+            long limit = Long.parseLong(expected.trim());
+            if (entry.getKey().equals(ALLOCATED_BYTES)) limit += (long) (limit * ALLOCATION_TOLERANCE);
+            if (value > limit) regressions.add(key + ": " + value + " > " + limit);
+        }
+        if (!regressions.isEmpty()) {
+            System.out.println("scroll metrics of " + scenario + ": " + metrics);
+            fail("scroll metrics regressed " + regressions);
+        }
+        if (!missing.isEmpty()) {
+            fail("no scroll baseline for " + missing + ", record it with -PupdateBaseline");
+        }
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream in = ScrollBaseline.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) throw new IllegalStateException(RESOURCE + " isn't on the test classpath");
+            properties.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("can't read " + RESOURCE, e);
+        }
+        return properties;
+    }
+
+    /**
+     * 合并写入基准值, 按键排序, 保证文件的差异只包含变化的指标
+     */
+    private static synchronized void update(File file, String scenario, Map<String, Long> metrics) {
+        Map<String, String> values = new TreeMap<>();
+        Properties properties = new Properties();
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("can't read " + file, e);
+            }
+        }
+        for (String key : properties.stringPropertyNames()) values.put(key, properties.getProperty(key));
+        for (Map.Entry<String, Long> entry : metrics.entrySet()) {
+            values.put(scenario + "." + entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        System.out.println("update scroll baseline of " + scenario + ": " + metrics);
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("# Recorded by ScrollBaseline with -PupdateBaseline, see its doc comment\n");
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("can't write " + file, e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.dzenm.banner.perf;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.viewpager.widget.ViewPager;
+
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 在Robolectric中模拟滑动, 快速滑动和自动播放, 统计每个场景的分配内存, 测量和布局次数,
+ * transformPage, onLoader以及页面绘制的次数. 每一帧推进16ms的时间并绘制一次, ViewPager在绘制时计算滑动的位置.
+ * banner和banner2的测试共用该目录(两个模块的build.gradle将其添加为test源码目录), 两个模块的图片加载器和
+ * 页面动画的接口不同, 由各自的测试创建, 在回调中调用{@link #onLoad()}和{@link #onTransformPage()}
+ * </pre>
+ */
+public final class ScrollHarness {
+
+    public static final int WIDTH = 1080, HEIGHT = 500;
+
+    private static final long FRAME_MILLIS = 16;
+
+    /**
+     * 等待滑动停止的最大帧数
+     */
+    private static final int MAX_SETTLE_FRAMES = 120;
+
+    private final HostLayout mHostLayout;
+    private final Canvas mCanvas;
+    private final Drawable mDrawable = new CountingDrawable();
+    private ViewPager mViewPager;
+    private int mScrollState = ViewPager.SCROLL_STATE_IDLE;
+
+    private int mMeasurePasses, mLayoutPasses, mTransformPages, mLoads, mDraws;
+
+    public ScrollHarness(Activity activity) {
+        mHostLayout = new HostLayout(activity);
+        mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+        activity.setContentView(mHostLayout, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+    }
+
+    /**
+     * 在图片加载器中调用, 统计加载次数
+     */
+    public void onLoad() {
+        mLoads++;
+    }
+
+    /**
+     * @return 所有页面显示的同一个Drawable, 统计页面的绘制次数
+     */
+    public Drawable getDrawable() {
+        return mDrawable;
+    }
+
+    /**
+     * 在页面动画中调用, 统计transformPage的次数
+     */
+    public void onTransformPage() {
+        mTransformPages++;
+    }
+
+    /**
+     * 添加已经build的banner, 完成第一次布局
+     */
+    public void attach(View banner, ViewPager viewPager) {
+        mHostLayout.addView(banner, new FrameLayout.LayoutParams(WIDTH, HEIGHT));
+        mViewPager = viewPager;
+        mViewPager.addOnPageChangeListener(new ViewPager.SimpleOnPageChangeListener() {
+            @Override
+            public void onPageScrollStateChanged(int state) {
+                mScrollState = state;
+            }
+        });
+        frame();
+    }
+
+    /**
+     * 推进一帧的时间, 处理消息和布局之后绘制一次
+     */
+    public void frame() {
+        ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        mHostLayout.draw(mCanvas);
+    }
+
+    /**
+     * 手指向左拖动, 松开之后等待滑动停止
+     *
+     * @param distance 拖动的距离(px)
+     * @param frames   拖动的帧数, 帧数越少松开时的速度越快
+     */
+    public void drag(float distance, int frames) {
+        mViewPager.beginFakeDrag();
+        for (int i = 0; i < frames; i++) {
+            mViewPager.fakeDragBy(-distance / frames);
+            frame();
+        }
+        mViewPager.endFakeDrag();
+        settle();
+    }
+
+    /**
+     * 慢速拖动超过一半的距离, 松开之后滑到下一页
+     */
+    public void swipe() {
+        drag(WIDTH * 0.6f, 30);
+    }
+
+    /**
+     * 快速拖动一小段距离, 根据松开时的速度滑到下一页
+     */
+    public void fling() {
+        drag(WIDTH * 0.25f, 3);
+    }
+
+    /**
+     * 页面静止时只推进时间, 不绘制, 等到自动播放开始切换页面之后再绘制到滑动停止.
+     * 需要在这之前调用banner的play方法
+     *
+     * @param period 自动播放的周期(毫秒), 超过一个周期还没有切换时失败
+     */
+    public void awaitAutoPlay(long period) {
+        for (long waited = 0; mScrollState == ViewPager.SCROLL_STATE_IDLE; waited += FRAME_MILLIS) {
+            if (waited > period) throw new AssertionError("autoplay didn't tick within " + period + "ms");
+            ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        settle();
+    }
+
+    /**
+     * 绘制直到滑动停止
+     */
+    public void settle() {
+        frame();
+        for (int i = 0; i < MAX_SETTLE_FRAMES && mScrollState != ViewPager.SCROLL_STATE_IDLE; i++) frame();
+        frame();
+    }
+
+    /**
+     * 统计一个场景的指标, 统计之前先执行一次场景, 排除类加载和第一次执行的影响
+     *
+     * @return 指标的名称和数值
+     */
+    public Map<String, Long> measure(Runnable scenario) {
+        scenario.run();
+        mMeasurePasses = mLayoutPasses = mTransformPages = mLoads = mDraws = 0;
+        long allocatedBytes = getAllocatedBytes();
+        scenario.run();
+        allocatedBytes = getAllocatedBytes() - allocatedBytes;
+
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put(ScrollBaseline.ALLOCATED_BYTES, allocatedBytes);
+        metrics.put("measurePasses", (long) mMeasurePasses);
+        metrics.put("layoutPasses", (long) mLayoutPasses);
+        metrics.put("transformPage", (long) mTransformPages);
+        metrics.put("onLoader", (long) mLoads);
+        metrics.put("onDraw", (long) mDraws);
+        return metrics;
+    }
+
+    private static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * 统计banner的测量和布局次数, banner内部任何View请求布局时都会重新测量和布局该View
+     */
+    private class HostLayout extends FrameLayout {
+
+        HostLayout(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            mMeasurePasses++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+            mLayoutPasses++;
+            super.onLayout(changed, left, top, right, bottom);
+        }
+    }
+
+    /**
+     * 统计页面的绘制次数
+     */
+    private class CountingDrawable extends Drawable {
+
+        @Override
+        public void draw(@NonNull Canvas canvas) {
+            mDraws++;
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+        }
+
+        @Override
+        public void setColorFilter(ColorFilter colorFilter) {
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+}